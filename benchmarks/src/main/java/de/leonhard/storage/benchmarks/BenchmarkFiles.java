@@ -0,0 +1,104 @@
+package de.leonhard.storage.benchmarks;
+
+import de.leonhard.storage.LightningBuilder;
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.settings.ConfigSettings;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Creates the files our benchmarks work on.
+ */
+final class BenchmarkFiles {
+
+    private BenchmarkFiles() {
+    }
+
+    static File createDirectory() throws IOException {
+        final File directory = Files.createTempDirectory("simplixstorage-benchmark").toFile();
+        directory.deleteOnExit();
+        return directory;
+    }
+
+    static FlatFile create(
+            final FileFormat format,
+            final File directory,
+            final String name,
+            final ReloadSettings reloadSettings) {
+        final LightningBuilder builder = LightningBuilder
+                .fromPath(name, directory.getAbsolutePath())
+                .setReloadSettings(reloadSettings);
+        switch (format) {
+            case JSON:
+                return builder.createJson();
+            case YAML:
+                return builder.createYaml();
+            case CONFIG:
+                return builder.setConfigSettings(ConfigSettings.PRESERVE_COMMENTS).createConfig();
+            case TOML:
+                return builder.createToml();
+            default:
+                throw new IllegalArgumentException("Unknown format " + format);
+        }
+    }
+
+    /**
+     * Key of the n-th value in a file with the given depth. Values are spread over 16 sections per
+     * layer, like "s3.s7.key55" for a depth of 3.
+     */
+    static String key(final int index, final int depth) {
+        final StringBuilder builder = new StringBuilder();
+        int section = index;
+        for (int layer = 1; layer < depth; layer++) {
+            builder.append('s').append(section & 15).append('.');
+            section >>>= 4;
+        }
+        return builder.append("key").append(index).toString();
+    }
+
+    /**
+     * Fills a file with values of mixed types and writes it once.
+     */
+    static void fill(final FlatFile flatFile, final int size, final int depth) {
+        flatFile.getFileData().loadData(data(size, depth));
+        flatFile.write();
+    }
+
+    /**
+     * Nested maps of the given size & depth, see {@link #key(int, int)}.
+     */
+    static Map<String, Object> data(final int size, final int depth) {
+        final Map<String, Object> data = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            insert(data, key(i, depth).split("\\."), value(i));
+        }
+        return data;
+    }
+
+    static Object value(final int index) {
+        switch (index % 4) {
+            case 0:
+                return index;
+            case 1:
+                return "value-" + index;
+            case 2:
+                return index * 0.5D;
+            default:
+                return index % 3 == 0;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void insert(final Map<String, Object> data, final String[] parts, final Object value) {
+        Map<String, Object> current = data;
+        for (int i = 0; i < parts.length - 1; i++) {
+            current = (Map<String, Object>) current.computeIfAbsent(parts[i], key -> new LinkedHashMap<>());
+        }
+        current.put(parts[parts.length - 1], value);
+    }
+}
@@ -0,0 +1,74 @@
+package de.leonhard.storage.benchmarks;
+
+import de.leonhard.storage.internal.FileData;
+import de.leonhard.storage.internal.settings.DataType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the map implementations of every {@link DataType}. See {@link HeapFootprint} for their
+ * memory usage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DataTypeBenchmark {
+
+    @Param({"UNSORTED", "SORTED", "NATURAL", "CONCURRENT"})
+    private DataType dataType;
+
+    @Param({"10000"})
+    private int size;
+
+    @Param({"1", "4"})
+    private int depth;
+
+    private Map<String, Object> raw;
+    private FileData fileData;
+    private String[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        raw = BenchmarkFiles.data(size, depth);
+        fileData = new FileData(raw, dataType);
+        keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = BenchmarkFiles.key(i, depth);
+        }
+    }
+
+    private String nextKey() {
+        final String key = keys[next];
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return key;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public FileData load() {
+        return new FileData(raw, dataType);
+    }
+
+    @Benchmark
+    public Object get() {
+        return fileData.get(nextKey());
+    }
+
+    @Benchmark
+    public void insert() {
+        fileData.insert(nextKey(), next);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void iterate(final Blackhole blackhole) {
+        fileData.forEachLeaf((key, value) -> blackhole.consume(value));
+    }
+}
@@ -0,0 +1,11 @@
+package de.leonhard.storage.benchmarks;
+
+/**
+ * File types our benchmarks run against. {@link #CONFIG} is a YAML file preserving comments.
+ */
+public enum FileFormat {
+    JSON,
+    YAML,
+    CONFIG,
+    TOML
+}
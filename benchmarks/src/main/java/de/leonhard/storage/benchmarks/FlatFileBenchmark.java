@@ -0,0 +1,132 @@
+package de.leonhard.storage.benchmarks;
+
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import de.leonhard.storage.sections.FlatFileSection;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the hot paths of every {@link FlatFile} implementation at several file sizes & nesting
+ * depths.
+ *
+ * <p>Files are loaded with {@link ReloadSettings#MANUALLY} so in-memory operations aren't mixed up
+ * with reloads. {@link #getIntelligent()} measures the default setting, which has to check the
+ * file for changes on every access.
+ *
+ * <p>Run with {@code -prof gc} to see the allocation rate of every operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FlatFileBenchmark {
+
+    @Param({"JSON", "YAML", "CONFIG", "TOML"})
+    private FileFormat format;
+
+    @Param({"100", "10000"})
+    private int size;
+
+    @Param({"1", "4"})
+    private int depth;
+
+    private FlatFile flatFile;
+    private FlatFile intelligentFile;
+    private String[] keys;
+    // Section of every key & the key relative to it
+    private FlatFileSection[] sections;
+    private String[] sectionKeys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        final File directory = BenchmarkFiles.createDirectory();
+        flatFile = BenchmarkFiles.create(format, directory, "manual", ReloadSettings.MANUALLY);
+        BenchmarkFiles.fill(flatFile, size, depth);
+
+        intelligentFile = BenchmarkFiles.create(format, directory, "intelligent", ReloadSettings.INTELLIGENT);
+        BenchmarkFiles.fill(intelligentFile, size, depth);
+
+        keys = new String[size];
+        sections = new FlatFileSection[size];
+        sectionKeys = new String[size];
+        final Map<String, FlatFileSection> sectionsByPrefix = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            keys[i] = BenchmarkFiles.key(i, depth);
+            final int split = keys[i].lastIndexOf('.');
+            final String prefix = split == -1 ? "" : keys[i].substring(0, split);
+            sections[i] = sectionsByPrefix.computeIfAbsent(prefix, flatFile::getSection);
+            sectionKeys[i] = keys[i].substring(split + 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        flatFile.getFile().delete();
+        intelligentFile.getFile().delete();
+    }
+
+    private String nextKey() {
+        return keys[nextIndex()];
+    }
+
+    private int nextIndex() {
+        final int index = next;
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return index;
+    }
+
+    @Benchmark
+    public Object get() {
+        return flatFile.get(nextKey());
+    }
+
+    @Benchmark
+    public Object getIntelligent() {
+        return intelligentFile.get(nextKey());
+    }
+
+    @Benchmark
+    public Object sectionGet() {
+        final int index = nextIndex();
+        return sections[index].get(sectionKeys[index]);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return flatFile.contains(nextKey());
+    }
+
+    @Benchmark
+    public void keySet(final Blackhole blackhole) {
+        for (final String key : flatFile.keySet()) {
+            blackhole.consume(key);
+        }
+    }
+
+    @Benchmark
+    public void set() {
+        // Includes writing the whole file, like every call to set()
+        final String key = nextKey();
+        flatFile.set(key, key);
+    }
+
+    @Benchmark
+    public void write() {
+        flatFile.write();
+    }
+
+    @Benchmark
+    public FlatFile forceReload() {
+        flatFile.forceReload();
+        return flatFile;
+    }
+}
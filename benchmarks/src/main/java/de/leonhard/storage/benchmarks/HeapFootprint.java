@@ -0,0 +1,163 @@
+package de.leonhard.storage.benchmarks;
+
+import de.leonhard.storage.LightningBuilder;
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.provider.CompactMapProvider;
+import de.leonhard.storage.internal.provider.LightningProviders;
+import de.leonhard.storage.internal.provider.MapProvider;
+import de.leonhard.storage.internal.settings.DataType;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Measures the retained heap of a loaded JSON file for every {@link DataType} & {@link
+ * CompactMapProvider}.
+ *
+ * <p>The generated file resembles player data: Every player has a few homes, each stored as a small
+ * layer of coordinates. A second file of long numeric series compares boxed lists to primitive
+ * arrays. Run it with enough heap to parse the files, for example:
+ *
+ * <pre>
+ * java -Xmx4g -cp target/benchmarks.jar de.leonhard.storage.benchmarks.HeapFootprint 100
+ * </pre>
+ */
+public final class HeapFootprint {
+
+    private static final String[] WORLDS = {"world", "world_nether", "world_the_end"};
+    private static final String[] HOMES = {"home", "base", "farm", "mine", "shop"};
+
+    private HeapFootprint() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        final File file = new File(BenchmarkFiles.createDirectory(), "players.json");
+        generate(file, megabytes * 1024L * 1024L);
+        System.out.printf("Dataset: %.1f MB%n", file.length() / 1024D / 1024D);
+
+        final MapProvider defaultProvider = new MapProvider() {
+        };
+        for (final DataType dataType : DataType.values()) {
+            measure(dataType.name(), file, defaultProvider, dataType);
+        }
+        measure("UNSORTED + CompactMapProvider", file, new CompactMapProvider(), DataType.UNSORTED);
+        measure("SORTED + CompactMapProvider", file, new CompactMapProvider(), DataType.SORTED);
+        Files.delete(file.toPath());
+
+        final File series = new File(BenchmarkFiles.createDirectory(), "series.json");
+        generateSeries(series, megabytes * 1024L * 1024L);
+        System.out.printf("%nDataset: %.1f MB%n", series.length() / 1024D / 1024D);
+        measure("Boxed lists", series, primitiveArrays(0, false), DataType.UNSORTED);
+        measure("Primitive arrays", series, primitiveArrays(64, false), DataType.UNSORTED);
+        measure("Primitive arrays (off-heap)", series, primitiveArrays(64, true), DataType.UNSORTED);
+        Files.delete(series.toPath());
+    }
+
+    private static void measure(
+            final String name,
+            final File file,
+            final MapProvider mapProvider,
+            final DataType dataType) {
+        LightningProviders.mapProvider(mapProvider);
+        final long before = usedHeap();
+        final FlatFile json = LightningBuilder.fromFile(file).setDataType(dataType).createJson();
+        final long after = usedHeap();
+        System.out.printf(
+                "%-32s %8.1f MB retained for %d keys%n",
+                name,
+                (after - before) / 1024D / 1024D,
+                json.getFileData().leafCount());
+    }
+
+    private static MapProvider primitiveArrays(final int threshold, final boolean offHeap) {
+        return new MapProvider() {
+            @Override
+            public int getPrimitiveArrayThreshold() {
+                return threshold;
+            }
+
+            @Override
+            public boolean isAllocatingOffHeap() {
+                return offHeap;
+            }
+        };
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void generate(final File file, final long targetBytes) throws IOException {
+        final Random random = new Random(42);
+        try (final BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("{\"players\":{");
+            long written = 0;
+            boolean first = true;
+            while (written < targetBytes) {
+                final StringBuilder player = new StringBuilder(512);
+                if (!first) {
+                    player.append(',');
+                }
+                first = false;
+                player.append('"').append(new UUID(random.nextLong(), random.nextLong())).append("\":{");
+                player.append("\"name\":\"player").append(random.nextInt(1_000_000)).append("\",");
+                player.append("\"balance\":").append(random.nextInt(100_000)).append(',');
+                player.append("\"homes\":{");
+                final int homes = 1 + random.nextInt(HOMES.length);
+                for (int i = 0; i < homes; i++) {
+                    if (i > 0) {
+                        player.append(',');
+                    }
+                    player.append('"').append(HOMES[i]).append("\":{")
+                            .append("\"world\":\"").append(WORLDS[random.nextInt(WORLDS.length)]).append("\",")
+                            .append("\"x\":").append(random.nextInt(60_000) - 30_000).append(',')
+                            .append("\"y\":").append(random.nextInt(256)).append(',')
+                            .append("\"z\":").append(random.nextInt(60_000) - 30_000).append(',')
+                            .append("\"yaw\":").append(random.nextInt(360)).append(',')
+                            .append("\"pitch\":").append(random.nextInt(180) - 90)
+                            .append('}');
+                }
+                player.append("}}");
+                writer.write(player.toString());
+                written += player.length();
+            }
+            writer.write("}}");
+        }
+    }
+
+    private static void generateSeries(final File file, final long targetBytes) throws IOException {
+        final Random random = new Random(42);
+        try (final BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("{\"chunks\":{");
+            long written = 0;
+            for (int chunk = 0; written < targetBytes; chunk++) {
+                final StringBuilder series = new StringBuilder(8192);
+                if (chunk > 0) {
+                    series.append(',');
+                }
+                series.append("\"chunk").append(chunk).append("\":{\"heights\":[");
+                for (int i = 0; i < 1024; i++) {
+                    series.append(i > 0 ? "," : "").append(60 + random.nextInt(40));
+                }
+                series.append("],\"temperatures\":[");
+                for (int i = 0; i < 256; i++) {
+                    series.append(i > 0 ? "," : "").append(random.nextInt(400) / 8D);
+                }
+                series.append("]}");
+                writer.write(series.toString());
+                written += series.length();
+            }
+            writer.write("}}");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package de.leonhard.storage.benchmarks;
+
+import de.leonhard.storage.internal.FileData;
+import de.leonhard.storage.internal.settings.DataType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sorted key queries of {@link FileData} with & without its sorted key index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class KeyIndexBenchmark {
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    @Param({"10000", "100000"})
+    private int size;
+
+    @Param({"4"})
+    private int depth;
+
+    private FileData fileData;
+    private String[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fileData = new FileData(BenchmarkFiles.data(size, depth), DataType.UNSORTED);
+        fileData.setKeyIndexed(indexed);
+        keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = BenchmarkFiles.key(i, depth);
+        }
+    }
+
+    private String nextKey() {
+        final String key = keys[next];
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return key;
+    }
+
+    @Benchmark
+    public List<String> firstPage() {
+        // Keys of a single section
+        final String key = nextKey();
+        return fileData.keys(key.substring(0, key.lastIndexOf('.') + 1), null, 20);
+    }
+
+    @Benchmark
+    public void insert() {
+        fileData.insert(nextKey(), next);
+    }
+}
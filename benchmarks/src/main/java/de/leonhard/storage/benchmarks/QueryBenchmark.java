@@ -0,0 +1,62 @@
+package de.leonhard.storage.benchmarks;
+
+import de.leonhard.storage.internal.FileData;
+import de.leonhard.storage.internal.settings.DataType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link FileData#query()} to filtering {@link FileData#stream()} for a glob matching a
+ * single key of every section & a value predicate.
+ *
+ * <p>{@code parallelScan} runs on the common fork-join pool, so it only differs from {@code scan}
+ * on machines with several cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class QueryBenchmark {
+
+    @Param({"100000"})
+    private int size;
+
+    @Param({"3"})
+    private int depth;
+
+    private FileData fileData;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fileData = new FileData(BenchmarkFiles.data(size, depth), DataType.UNSORTED);
+    }
+
+    @Benchmark
+    public long stream() {
+        return fileData.stream()
+                .filter(entry -> entry.getKey().startsWith("s4.") && entry.getKey().endsWith("4"))
+                .filter(entry -> entry.getValue() instanceof Integer)
+                .count();
+    }
+
+    @Benchmark
+    public long query() {
+        return fileData.query()
+                .path("s4.*.*")
+                .where(Integer.class, value -> value % 10 == 4)
+                .count();
+    }
+
+    @Benchmark
+    public long scan() {
+        return fileData.query().where(Integer.class, value -> value % 10 == 4).count();
+    }
+
+    @Benchmark
+    public long parallelScan() {
+        return fileData.query().where(Integer.class, value -> value % 10 == 4).parallel().count();
+    }
+}
@@ -0,0 +1,119 @@
+package de.leonhard.storage.benchmarks;
+
+import de.leonhard.storage.internal.serialize.LightningMapped;
+import de.leonhard.storage.internal.serialize.LightningSerializable;
+import de.leonhard.storage.internal.serialize.LightningSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link LightningMapped} classes with hand-written {@link LightningSerializable}s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SerializerBenchmark {
+
+    private HandWrittenItem handWrittenItem;
+    private MappedItem mappedItem;
+    private Object handWrittenRaw;
+    private Object mappedRaw;
+
+    @Setup
+    public void setup() {
+        LightningSerializer.registerSerializable(new HandWrittenItemSerializable());
+
+        handWrittenItem = new HandWrittenItem();
+        handWrittenItem.name = "Diamond Sword";
+        handWrittenItem.amount = 64;
+        handWrittenItem.durability = 0.75D;
+        handWrittenItem.enchanted = true;
+
+        mappedItem = new MappedItem();
+        mappedItem.name = "Diamond Sword";
+        mappedItem.amount = 64;
+        mappedItem.durability = 0.75D;
+        mappedItem.enchanted = true;
+
+        handWrittenRaw = LightningSerializer.serialize(handWrittenItem);
+        mappedRaw = LightningSerializer.serialize(mappedItem);
+    }
+
+    @Benchmark
+    public Object serializeHandWritten() {
+        return LightningSerializer.serialize(handWrittenItem);
+    }
+
+    @Benchmark
+    public Object serializeMapped() {
+        return LightningSerializer.serialize(mappedItem);
+    }
+
+    @Benchmark
+    public HandWrittenItem deserializeHandWritten() {
+        return LightningSerializer.deserialize(handWrittenRaw, HandWrittenItem.class);
+    }
+
+    @Benchmark
+    public MappedItem deserializeMapped() {
+        return LightningSerializer.deserialize(mappedRaw, MappedItem.class);
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Classes to serialize
+    // ----------------------------------------------------------------------------------------------------
+
+    public static class HandWrittenItem {
+
+        private String name;
+        private int amount;
+        private double durability;
+        private boolean enchanted;
+    }
+
+    @LightningMapped
+    public static class MappedItem {
+
+        private String name;
+        private int amount;
+        private double durability;
+        private boolean enchanted;
+    }
+
+    private static final class HandWrittenItemSerializable
+            implements LightningSerializable<HandWrittenItem> {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public HandWrittenItem deserialize(final Object obj) {
+            final Map<String, Object> data = (Map<String, Object>) obj;
+            final HandWrittenItem item = new HandWrittenItem();
+            item.name = (String) data.get("name");
+            item.amount = ((Number) data.get("amount")).intValue();
+            item.durability = ((Number) data.get("durability")).doubleValue();
+            item.enchanted = (Boolean) data.get("enchanted");
+            return item;
+        }
+
+        @Override
+        public Object serialize(final HandWrittenItem item) {
+            final Map<String, Object> result = new LinkedHashMap<>(8);
+            result.put("name", item.name);
+            result.put("amount", item.amount);
+            result.put("durability", item.durability);
+            result.put("enchanted", item.enchanted);
+            return result;
+        }
+
+        @Override
+        public Class<HandWrittenItem> getClazz() {
+            return HandWrittenItem.class;
+        }
+    }
+}
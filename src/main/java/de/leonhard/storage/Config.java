@@ -1,8 +1,10 @@
 package de.leonhard.storage;
 
+import de.leonhard.storage.internal.compression.Compression;
 import de.leonhard.storage.internal.settings.ConfigSettings;
 import de.leonhard.storage.internal.settings.DataType;
 import de.leonhard.storage.internal.settings.ReloadSettings;
+import de.leonhard.storage.util.FileUtils;
 import lombok.NonNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -37,12 +39,31 @@ public class Config extends Yaml {
             @Nullable final ReloadSettings reloadSettings,
             @Nullable final ConfigSettings configSettings,
             @Nullable final DataType dataType) {
-        super(name, path, inputStream, reloadSettings, configSettings, dataType);
+        this(name, path, inputStream, reloadSettings, configSettings, dataType, null);
+    }
+
+    public Config(
+            final String name,
+            @Nullable final String path,
+            @Nullable final InputStream inputStream,
+            @Nullable final ReloadSettings reloadSettings,
+            @Nullable final ConfigSettings configSettings,
+            @Nullable final DataType dataType,
+            @Nullable final Compression compression) {
+        // Comments are always preserved, which needs the order of the keys to be kept
+        super(
+                name,
+                path,
+                inputStream,
+                reloadSettings,
+                configSettings == null ? ConfigSettings.PRESERVE_COMMENTS : configSettings,
+                dataType == null ? DataType.SORTED : dataType,
+                compression);
         setConfigSettings(ConfigSettings.PRESERVE_COMMENTS);
     }
 
     public Config(final File file) {
-        super(file);
+        this(file.getName(), FileUtils.getParentDirPath(file));
     }
 
     // ----------------------------------------------------------------------------------------------------
@@ -3,20 +3,18 @@ package de.leonhard.storage;
 import de.leonhard.storage.internal.FileData;
 import de.leonhard.storage.internal.FileType;
 import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.compression.Compression;
+import de.leonhard.storage.internal.settings.DataType;
 import de.leonhard.storage.internal.settings.ReloadSettings;
-import de.leonhard.storage.util.FileUtils;
 import lombok.Cleanup;
 import lombok.Getter;
 import org.jetbrains.annotations.Nullable;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.Writer;
-import java.nio.file.Files;
-import java.util.Collections;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,6 +25,7 @@ public class Json extends FlatFile {
         super(json.getFile(), json.fileType);
         this.fileData = json.getFileData();
         this.pathPrefix = json.getPathPrefix();
+        this.compression = json.getCompression();
     }
 
     public Json(final String name, final String path) {
@@ -42,17 +41,39 @@ public class Json extends FlatFile {
             @Nullable final String path,
             @Nullable final InputStream inputStream,
             @Nullable final ReloadSettings reloadSettings) {
-        super(name, path, FileType.JSON);
+        this(name, path, inputStream, reloadSettings, null);
+    }
+
+    public Json(
+            final String name,
+            @Nullable final String path,
+            @Nullable final InputStream inputStream,
+            @Nullable final ReloadSettings reloadSettings,
+            @Nullable final DataType dataType) {
+        this(name, path, inputStream, reloadSettings, dataType, null);
+    }
+
+    public Json(
+            final String name,
+            @Nullable final String path,
+            @Nullable final InputStream inputStream,
+            @Nullable final ReloadSettings reloadSettings,
+            @Nullable final DataType dataType,
+            @Nullable final Compression compression) {
+        super(name, path, FileType.JSON, compression);
 
         if (create() || this.file.length() == 0) {
             if (inputStream != null) {
-                FileUtils.writeToFile(this.file, inputStream);
+                writeToFile(inputStream);
             }
         }
 
         if (reloadSettings != null) {
             this.reloadSettings = reloadSettings;
         }
+        if (dataType != null) {
+            this.dataType = dataType;
+        }
         forceReload();
     }
 
@@ -97,16 +118,18 @@ public class Json extends FlatFile {
     @Override
     protected Map<String, Object> readToMap() throws IOException {
         if (this.file.length() == 0) {
-            Files.write(this.file.toPath(), Collections.singletonList("{}"));
+            @Cleanup final Writer writer = createWriter(StandardCharsets.UTF_8);
+            writer.write("{}");
+            writer.write(System.lineSeparator());
         }
 
-        final JSONTokener jsonTokener = new JSONTokener(FileUtils.createInputStream(this.file));
-        return new JSONObject(jsonTokener).toMap();
+        @Cleanup final Reader reader = createReader(StandardCharsets.UTF_8);
+        return new JSONObject(new JSONTokener(reader)).toMap();
     }
 
     @Override
     protected void write(final FileData data) throws IOException {
-        @Cleanup final Writer writer = FileUtils.createWriter(this.file);
+        @Cleanup final Writer writer = createWriter(Charset.defaultCharset());
         writer.write(data.toJsonObject().toString(3));
         writer.flush();
         writer.close();
@@ -1,5 +1,8 @@
 package de.leonhard.storage;
 
+import de.leonhard.storage.internal.compression.Compression;
+import de.leonhard.storage.internal.compression.CompressionCodec;
+import de.leonhard.storage.internal.compression.CompressionCodecs;
 import de.leonhard.storage.internal.provider.InputStreamProvider;
 import de.leonhard.storage.internal.provider.LightningProviders;
 import de.leonhard.storage.internal.settings.ConfigSettings;
@@ -24,6 +27,7 @@ public final class LightningBuilder {
     private ReloadSettings reloadSettings;
     private ConfigSettings configSettings;
     private DataType dataType;
+    private Compression compression;
 
     private LightningBuilder(
             final String name, final String path, final InputStreamProvider inputStreamProvider) {
@@ -52,10 +56,16 @@ public final class LightningBuilder {
                 "Please use from Directory to use a directory",
                 "This is due to Java-Internals");
 
-        return new LightningBuilder(
-                FileUtils.replaceExtensions(file.getName()),
+        final LightningBuilder builder = new LightningBuilder(
+                FileUtils.replaceExtensions(CompressionCodecs.stripExtension(file.getName())),
                 FileUtils.getParentDirPath(file),
                 LightningProviders.inputStreamProvider());
+        // Files like "data.json.gz" stay compressed
+        final CompressionCodec codec = CompressionCodecs.forFile(file);
+        if (codec != null) {
+            builder.compression = Compression.of(codec);
+        }
+        return builder;
     }
 
     public static LightningBuilder fromDirectory(@NonNull final File file) {
@@ -112,25 +122,35 @@ public final class LightningBuilder {
         return this;
     }
 
+    /**
+     * Compresses the file, its extension is followed by the one of the codec like "data.json.gz".
+     */
+    public LightningBuilder setCompression(@Nullable final Compression compression) {
+        this.compression = compression;
+        return this;
+    }
+
     // ----------------------------------------------------------------------------------------------------
     // Create the objects of our FileTypes
     // ----------------------------------------------------------------------------------------------------
 
     public Config createConfig() {
-        return new Config(this.name, this.path,
-                this.inputStream, this.reloadSettings, this.configSettings, this.dataType);
+        return new Config(this.name, this.path, this.inputStream,
+                this.reloadSettings, this.configSettings, this.dataType, this.compression);
     }
 
     public Yaml createYaml() {
         return new Yaml(this.name, this.path, this.inputStream,
-                this.reloadSettings, this.configSettings, this.dataType);
+                this.reloadSettings, this.configSettings, this.dataType, this.compression);
     }
 
     public Toml createToml() {
-        return new Toml(this.name, this.path, this.inputStream, this.reloadSettings);
+        return new Toml(this.name, this.path,
+                this.inputStream, this.reloadSettings, this.dataType, this.compression);
     }
 
     public Json createJson() {
-        return new Json(this.name, this.path, this.inputStream, this.reloadSettings);
+        return new Json(this.name, this.path,
+                this.inputStream, this.reloadSettings, this.dataType, this.compression);
     }
 }
@@ -3,10 +3,13 @@ package de.leonhard.storage;
 import de.leonhard.storage.internal.FileData;
 import de.leonhard.storage.internal.FileType;
 import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.compression.Compression;
 import de.leonhard.storage.internal.editor.toml.TomlManager;
+import de.leonhard.storage.internal.settings.DataType;
 import de.leonhard.storage.internal.settings.ReloadSettings;
 import de.leonhard.storage.util.FileUtils;
 import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
@@ -19,6 +22,7 @@ public class Toml extends FlatFile {
         super(toml.getFile());
         this.fileData = toml.getFileData();
         this.pathPrefix = toml.getPathPrefix();
+        this.compression = toml.getCompression();
     }
 
     public Toml(final String name, final String path) {
@@ -34,15 +38,37 @@ public class Toml extends FlatFile {
             final String path,
             final InputStream inputStream,
             final ReloadSettings reloadSettings) {
-        super(name, path, FileType.TOML);
+        this(name, path, inputStream, reloadSettings, null);
+    }
+
+    public Toml(
+            final String name,
+            final String path,
+            final InputStream inputStream,
+            final ReloadSettings reloadSettings,
+            @Nullable final DataType dataType) {
+        this(name, path, inputStream, reloadSettings, dataType, null);
+    }
+
+    public Toml(
+            final String name,
+            final String path,
+            final InputStream inputStream,
+            final ReloadSettings reloadSettings,
+            @Nullable final DataType dataType,
+            @Nullable final Compression compression) {
+        super(name, path, FileType.TOML, compression);
 
         if (create() && inputStream != null) {
-            FileUtils.writeToFile(this.file, inputStream);
+            writeToFile(inputStream);
         }
 
         if (reloadSettings != null) {
             this.reloadSettings = reloadSettings;
         }
+        if (dataType != null) {
+            this.dataType = dataType;
+        }
 
         forceReload();
     }
@@ -59,13 +85,15 @@ public class Toml extends FlatFile {
 
     @Override
     protected final Map<String, Object> readToMap() throws IOException {
-        return TomlManager.read(getFile());
+        try (final InputStream inputStream = createInputStream()) {
+            return TomlManager.read(inputStream);
+        }
     }
 
     @Override
     protected final void write(final FileData data) {
         try {
-            TomlManager.write(data.toMap(), getFile());
+            TomlManager.write(data.toMap(), createOutputStream());
         } catch (final IOException ioException) {
             System.err.println("Exception while writing fileData to file '" + getName() + "'");
             System.err.println("In '" + FileUtils.getParentDirPath(this.file) + "'");
@@ -3,10 +3,14 @@ package de.leonhard.storage;
 import de.leonhard.storage.internal.FileData;
 import de.leonhard.storage.internal.FileType;
 import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.compression.Compression;
 import de.leonhard.storage.internal.editor.yaml.SimpleYamlReader;
 import de.leonhard.storage.internal.editor.yaml.SimpleYamlWriter;
 import de.leonhard.storage.internal.editor.yaml.YamlEditor;
 import de.leonhard.storage.internal.editor.yaml.YamlParser;
+import de.leonhard.storage.internal.editor.yaml.YamlPatcher;
+import de.leonhard.storage.internal.metrics.StorageEvent;
+import de.leonhard.storage.internal.metrics.StorageEvents;
 import de.leonhard.storage.internal.settings.ConfigSettings;
 import de.leonhard.storage.internal.settings.DataType;
 import de.leonhard.storage.internal.settings.ReloadSettings;
@@ -18,7 +22,9 @@ import lombok.Setter;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +36,7 @@ public class Yaml extends FlatFile {
     protected final InputStream inputStream;
     protected final YamlEditor yamlEditor;
     protected final YamlParser parser;
+    private final YamlPatcher patcher;
     @Setter
     private ConfigSettings configSettings = ConfigSettings.SKIP_COMMENTS;
 
@@ -38,7 +45,9 @@ public class Yaml extends FlatFile {
         this.fileData = yaml.getFileData();
         this.yamlEditor = yaml.getYamlEditor();
         this.parser = yaml.getParser();
+        this.patcher = yaml.getPatcher();
         this.configSettings = yaml.getConfigSettings();
+        this.compression = yaml.getCompression();
         this.inputStream = yaml.getInputStream().orElse(null);
         this.pathPrefix = yaml.getPathPrefix();
     }
@@ -61,15 +70,27 @@ public class Yaml extends FlatFile {
             @Nullable final ReloadSettings reloadSettings,
             @Nullable final ConfigSettings configSettings,
             @Nullable final DataType dataType) {
-        super(name, path, FileType.YAML);
+        this(name, path, inputStream, reloadSettings, configSettings, dataType, null);
+    }
+
+    public Yaml(
+            final String name,
+            @Nullable final String path,
+            @Nullable final InputStream inputStream,
+            @Nullable final ReloadSettings reloadSettings,
+            @Nullable final ConfigSettings configSettings,
+            @Nullable final DataType dataType,
+            @Nullable final Compression compression) {
+        super(name, path, FileType.YAML, compression);
         this.inputStream = inputStream;
 
         if (create() && inputStream != null) {
-            FileUtils.writeToFile(this.file, inputStream);
+            writeToFile(inputStream);
         }
 
-        this.yamlEditor = new YamlEditor(this.file);
+        this.yamlEditor = new YamlEditor(this.file, this.compression);
         this.parser = new YamlParser(this.yamlEditor);
+        this.patcher = new YamlPatcher(this.file, Charset.defaultCharset());
 
         if (reloadSettings != null) {
             this.reloadSettings = reloadSettings;
@@ -112,11 +133,11 @@ public class Yaml extends FlatFile {
 
             final FileData newData = new FileData(data, DataType.UNSORTED);
 
-            for (final String key : newData.keySet()) {
+            newData.forEachLeaf((key, value) -> {
                 if (!this.fileData.containsKey(key)) {
-                    this.fileData.insert(key, newData.get(key));
+                    this.fileData.insert(key, value);
                 }
-            }
+            });
 
             write();
         } catch (final Exception ex) {
@@ -132,30 +153,74 @@ public class Yaml extends FlatFile {
 
     @Override
     protected Map<String, Object> readToMap() throws IOException {
+        this.patcher.invalidate();
+        this.yamlEditor.invalidate();
+        // Compressed files can't be patched, so their lines aren't indexed
+        if (!ConfigSettings.PRESERVE_COMMENTS.equals(this.configSettings)
+                || this.compression != null) {
+            @Cleanup final SimpleYamlReader reader = new SimpleYamlReader(
+                    createReader(Charset.defaultCharset()));
+            return reader.readToMap();
+        }
+
+        // Reading the file once to parse it & to index the lines of its values for patching
+        final byte[] content = Files.readAllBytes(this.file.toPath());
         @Cleanup final SimpleYamlReader reader = new SimpleYamlReader(
-                new FileReader(getFile()));
-        return reader.readToMap();
+                new String(content, Charset.defaultCharset()));
+        final Map<String, Object> data = reader.readToMap();
+        this.patcher.read(content);
+        return data;
+    }
+
+    @Override
+    protected void afterReload() {
+        if (ConfigSettings.PRESERVE_COMMENTS.equals(this.configSettings)
+                && this.compression == null) {
+            this.patcher.loaded(this.fileData.snapshot());
+        }
+    }
+
+    // Our patcher compares the next data to write with the data written last
+    @Override
+    protected boolean keepsWrittenData() {
+        return ConfigSettings.PRESERVE_COMMENTS.equals(this.configSettings)
+                && this.compression == null;
     }
 
     @Override
     protected void write(final FileData data) throws IOException {
         // If Comments shouldn't be preserved
         if (!ConfigSettings.PRESERVE_COMMENTS.equals(this.configSettings)) {
-            write0(this.fileData);
+            this.patcher.invalidate();
+            write0(data);
+            return;
+        }
+
+        // Changed values are written into their lines, comments stay untouched
+        if (this.compression == null && this.patcher.patch(data)) {
+            this.yamlEditor.invalidate();
             return;
         }
 
         final List<String> unEdited = this.yamlEditor.read();
-        write0(this.fileData);
+        write0(data);
+
+        final StorageEvent event = StorageEvents.beginYamlCommentMerge();
         this.yamlEditor.write(this.parser.parseLines(unEdited, this.yamlEditor.readKeys()));
+        event.finish(this);
+        if (this.compression == null) {
+            this.patcher.written(data);
+        }
     }
 
     // Writing without comments
     private void write0(final FileData fileData) throws IOException {
 
-        final SimpleYamlWriter writer = new SimpleYamlWriter(this.file);
+        final SimpleYamlWriter writer = new SimpleYamlWriter(
+                createWriter(Charset.defaultCharset()));
         writer.write(fileData.toMap());
         writer.close();
+        this.yamlEditor.invalidate();
 
     }
 
@@ -169,6 +234,7 @@ public class Yaml extends FlatFile {
 
     public final void setHeader(final List<String> header) {
         this.yamlEditor.setHeader(header);
+        this.patcher.invalidate();
     }
 
     public final void setHeader(final String... header) {
@@ -177,12 +243,22 @@ public class Yaml extends FlatFile {
 
     public final void addHeader(final List<String> toAdd) {
         this.yamlEditor.addHeader(toAdd);
+        this.patcher.invalidate();
     }
 
     public final void addHeader(final String... header) {
         addHeader(Arrays.asList(header));
     }
 
+    @Override
+    public void replace(
+            final CharSequence target,
+            final CharSequence replacement) throws IOException {
+        super.replace(target, replacement);
+        this.patcher.invalidate();
+        this.yamlEditor.invalidate();
+    }
+
     public final Optional<InputStream> getInputStream() {
         return Optional.ofNullable(this.inputStream);
     }
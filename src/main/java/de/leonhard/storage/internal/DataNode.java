@@ -0,0 +1,195 @@
+package de.leonhard.storage.internal;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * A single layer of a {@link FileData}.
+ *
+ * <p>Nodes are read-only maps for everyone except their {@link FileData}, which keeps the
+ * cumulative sizes of the subtree of every node up to date while inserting or removing data. That
+ * way deep sizes never require walking the tree.
+ *
+ * <p>Nodes may be shared between a FileData and its snapshots. Only nodes created under the current
+ * owner token of a FileData are changed in place, all others are copied first.
+ */
+public final class DataNode extends AbstractMap<String, Object> {
+
+    final Map<String, Object> entries;
+    // Token of the FileData allowed to change this node in place
+    final Object owner;
+    // Amount of values in this subtree which aren't layers themselves
+    int leafCount;
+    // Amount of entries in all layers of this subtree
+    int deepSize;
+    // Cached structural hash of this subtree, 0 if not computed yet. Reset by FileData on changes
+    volatile long hash;
+    // Set once the FileData owning this node replaced it by a copy, see FileData#isCurrent
+    volatile boolean copied;
+
+    DataNode(final Map<String, Object> entries, final Object owner) {
+        this.entries = entries;
+        this.owner = owner;
+    }
+
+    /**
+     * @return the amount of values in all layers of this node which aren't layers themselves.
+     */
+    public int leafCount() {
+        return this.leafCount;
+    }
+
+    /**
+     * @return the amount of entries in all layers of this node combined.
+     */
+    public int deepSize() {
+        return this.deepSize;
+    }
+
+    /**
+     * Order independent 64-bit hash of all layers of this node. Cached until the node or one of its
+     * sublayers changes. Subtrees containing values which might be changed in place, like lists,
+     * are hashed again on every call so their hash never gets stale.
+     */
+    public long structuralHash() {
+        final long cached = this.hash;
+        if (cached != 0) {
+            return cached;
+        }
+
+        long result = 0;
+        boolean cacheable = true;
+        for (final Map.Entry<String, Object> entry : this.entries.entrySet()) {
+            final Object value = entry.getValue();
+            final long valueHash;
+            if (value instanceof DataNode) {
+                final DataNode node = (DataNode) value;
+                valueHash = node.structuralHash();
+                cacheable &= node.hash != 0;
+            } else {
+                valueHash = Objects.hashCode(value);
+                cacheable &= isImmutable(value);
+            }
+            result += mix(entry.getKey().hashCode() * 0x9E3779B97F4A7C15L + valueHash);
+        }
+        // 0 marks hashes which weren't computed yet
+        if (result == 0) {
+            result = 1;
+        }
+        if (cacheable) {
+            this.hash = result;
+        }
+        return result;
+    }
+
+    /**
+     * Nodes with different sizes or structural hashes differ without walking them. Equal hashes may
+     * collide, so the entries are compared afterwards. Sublayers shared by both nodes are skipped.
+     *
+     * @return Whether this node has the same content as the other one.
+     */
+    public boolean sameContent(final DataNode other) {
+        if (this == other) {
+            return true;
+        }
+        if (this.deepSize != other.deepSize
+                || this.leafCount != other.leafCount
+                || this.entries.size() != other.entries.size()
+                || structuralHash() != other.structuralHash()) {
+            return false;
+        }
+        for (final Map.Entry<String, Object> entry : this.entries.entrySet()) {
+            final Object value = entry.getValue();
+            final Object otherValue = other.entries.get(entry.getKey());
+            if (value instanceof DataNode && otherValue instanceof DataNode) {
+                if (!((DataNode) value).sameContent((DataNode) otherValue)) {
+                    return false;
+                }
+            } else if (!Objects.equals(value, otherValue)
+                    || otherValue == null && !other.entries.containsKey(entry.getKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isImmutable(final Object value) {
+        return value == null
+                || value instanceof String
+                || value instanceof Integer
+                || value instanceof Long
+                || value instanceof Double
+                || value instanceof Float
+                || value instanceof Short
+                || value instanceof Byte
+                || value instanceof Boolean
+                || value instanceof Character
+                || value instanceof Enum;
+    }
+
+    // Finalizer of MurmurHash3
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Contribution of values to the sizes of their parent
+    // ----------------------------------------------------------------------------------------------------
+
+    static int leafCountOf(final Object value) {
+        return value instanceof DataNode ? ((DataNode) value).leafCount : 1;
+    }
+
+    static int deepSizeOf(final Object value) {
+        return value instanceof DataNode ? 1 + ((DataNode) value).deepSize : 1;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Read-only Map implementation
+    // ----------------------------------------------------------------------------------------------------
+
+    @Override
+    public Object get(final Object key) {
+        return this.entries.get(key);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return this.entries.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return this.entries.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.entries.isEmpty();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(this.entries.keySet());
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return Collections.unmodifiableCollection(this.entries.values());
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return Collections.unmodifiableMap(this.entries).entrySet();
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super Object> action) {
+        this.entries.forEach(action);
+    }
+}
@@ -1,13 +1,17 @@
 package de.leonhard.storage.internal;
 
 import de.leonhard.storage.internal.provider.LightningProviders;
+import de.leonhard.storage.internal.serialize.LightningMapped;
 import de.leonhard.storage.internal.serialize.LightningSerializer;
 import de.leonhard.storage.util.ClassWrapper;
+import de.leonhard.storage.util.NumberArrays;
 import de.leonhard.storage.util.Valid;
 import lombok.NonNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public interface DataStorage {
 
@@ -70,7 +74,8 @@ public interface DataStorage {
 
     /**
      * Method to deserialize a class using the {@link LightningSerializer}. You will need to register
-     * your serializable in the {@link LightningSerializer} before.
+     * your serializable in the {@link LightningSerializer} before or annotate your class with {@link
+     * LightningMapped}.
      *
      * @param key   The key your value should be associated with.
      * @param value The value you want to set in your data-structure.
@@ -88,6 +93,54 @@ public interface DataStorage {
         }
     }
 
+    /**
+     * Method to serialize a whole collection of objects using the {@link LightningSerializer}. All
+     * values are stored as one list under the given key, so the data-structure is only modified and
+     * written once.
+     *
+     * @param key    The key the list should be associated with.
+     * @param values The values you want to set in your data-structure.
+     */
+    default <T> void setSerializableList(
+            @NonNull final String key,
+            @NonNull final Collection<? extends T> values) {
+        final List<Object> data = new ArrayList<>(values.size());
+        try {
+            for (final T value : values) {
+                data.add(LightningSerializer.serialize(value));
+            }
+        } catch (final Exception throwable) {
+            throw LightningProviders.exceptionHandler().create(
+                    throwable,
+                    "Can't serialize list: '" + key + "'");
+        }
+        set(key, data);
+    }
+
+    /**
+     * Method to serialize a map of objects using the {@link LightningSerializer}. Every value is
+     * stored under its key in a section at the given key, so the data-structure is only modified and
+     * written once.
+     *
+     * @param key    The key the section should be associated with.
+     * @param values The values you want to set in your data-structure.
+     */
+    default <T> void setSerializableMap(
+            @NonNull final String key,
+            @NonNull final Map<String, ? extends T> values) {
+        final Map<String, Object> data = new LinkedHashMap<>(values.size() * 2);
+        try {
+            for (final Map.Entry<String, ? extends T> entry : values.entrySet()) {
+                data.put(entry.getKey(), LightningSerializer.serialize(entry.getValue()));
+            }
+        } catch (final Exception throwable) {
+            throw LightningProviders.exceptionHandler().create(
+                    throwable,
+                    "Can't serialize map: '" + key + "'");
+        }
+        set(key, data);
+    }
+
     // ----------------------------------------------------------------------------------------------------
     // Getting Strings & primitive types from data-structure
     // ----------------------------------------------------------------------------------------------------
@@ -203,6 +256,31 @@ public interface DataStorage {
         return getOrDefault(key, new ArrayList<>());
     }
 
+    /**
+     * Get a list of numbers as int array. Large lists are stored without boxing, see {@link
+     * NumberArrays}.
+     *
+     * @param key Path to the list in data-structure.
+     * @return Copy of the list. Empty if the key doesn't exist.
+     */
+    default int[] getIntArray(final String key) {
+        return NumberArrays.toIntArray(get(key));
+    }
+
+    /**
+     * Get a list of numbers as long array, see {@link #getIntArray(String)}.
+     */
+    default long[] getLongArray(final String key) {
+        return NumberArrays.toLongArray(get(key));
+    }
+
+    /**
+     * Get a list of numbers as double array, see {@link #getIntArray(String)}.
+     */
+    default double[] getDoubleArray(final String key) {
+        return NumberArrays.toDoubleArray(get(key));
+    }
+
     default Map<?, ?> getMap(final String key) {
         return getOrDefault(key, new HashMap<>());
     }
@@ -227,15 +305,63 @@ public interface DataStorage {
 
     /**
      * Method to serialize a Class using the {@link LightningSerializer}. You will need to register
-     * your serializable in the {@link LightningSerializer} before.
+     * your serializable in the {@link LightningSerializer} before or annotate your class with {@link
+     * LightningMapped}.
      *
      * @return Serialized instance of class.
      */
     default <T> T getSerializable(final String key, final Class<T> clazz) {
-        if (!contains(key)) {
+        final Object raw = get(key);
+        if (raw == null) {
             return null;
         }
-        return LightningSerializer.deserialize(get(key), clazz);
+        return LightningSerializer.deserialize(raw, clazz);
+    }
+
+    /**
+     * Method to deserialize values stored using {@link #setSerializableList(String, Collection)} or
+     * {@link #setSerializableMap(String, Map)}. The values are deserialized lazily while the stream
+     * is consumed.
+     *
+     * @return Stream of the deserialized values. Empty if the key doesn't exist.
+     */
+    default <T> Stream<T> streamSerializable(final String key, final Class<T> clazz) {
+        final Object raw = get(key);
+        if (raw instanceof Collection) {
+            return LightningSerializer.deserializeAll(((Collection<?>) raw).stream(), clazz);
+        } else if (raw instanceof Map) {
+            return LightningSerializer.deserializeAll(((Map<?, ?>) raw).values().stream(), clazz);
+        }
+        return Stream.empty();
+    }
+
+    /**
+     * Method to deserialize a list stored using {@link #setSerializableList(String, Collection)}.
+     *
+     * @return Deserialized values. Empty if the key doesn't exist.
+     */
+    default <T> List<T> getSerializableList(final String key, final Class<T> clazz) {
+        return streamSerializable(key, clazz).collect(Collectors.toList());
+    }
+
+    /**
+     * Method to deserialize a map stored using {@link #setSerializableMap(String, Map)}.
+     *
+     * @return Deserialized values by their keys. Empty if the key doesn't exist.
+     */
+    @SuppressWarnings("unchecked")
+    default <T> Map<String, T> getSerializableMap(final String key, final Class<T> clazz) {
+        final Object raw = get(key);
+        if (!(raw instanceof Map)) {
+            return new LinkedHashMap<>();
+        }
+
+        final Map<String, Object> data = (Map<String, Object>) raw;
+        final Map<String, T> result = new LinkedHashMap<>(data.size() * 2);
+        for (final Map.Entry<String, Object> entry : data.entrySet()) {
+            result.put(entry.getKey(), LightningSerializer.deserialize(entry.getValue(), clazz));
+        }
+        return result;
     }
 
     // ----------------------------------------------------------------------------------------------------
@@ -1,42 +1,81 @@
 package de.leonhard.storage.internal;
 
+import de.leonhard.storage.internal.provider.LightningProviders;
 import de.leonhard.storage.internal.settings.DataType;
 import de.leonhard.storage.util.JsonUtils;
-import org.jetbrains.annotations.NotNull;
+import de.leonhard.storage.util.NumberArrays;
+import de.leonhard.storage.util.Valid;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONObject;
 
-import java.util.AbstractMap.SimpleEntry;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An extended HashMap, to easily process the nested HashMaps created by reading the Configuration
  * files.
+ *
+ * <p>Every layer is stored in a {@link DataNode}, created using the {@link DataType} of this
+ * FileData. Maps passed in are copied into nodes, maps returned are read-only views of the data.
+ *
+ * <p>{@link #snapshot()} shares all nodes with the snapshot instead of copying them. Afterwards
+ * changes copy the nodes on the path to the changed key before changing them, so neither side ever
+ * sees changes of the other one.
+ *
+ * <p>{@link #setKeyIndexed(boolean)} keeps all keys sorted, so {@link #keys(String)} & {@link
+ * #keyRange(String, String)} don't have to walk all layers.
  */
 @SuppressWarnings("unchecked")
 public class FileData {
 
-    private final Map<String, Object> localMap;
+    private final DataType dataType;
+    private final boolean readOnly;
+    // Deduplicates keys, see MapProvider#isInterningKeys()
+    private final boolean internKeys = LightningProviders.mapProvider().isInterningKeys();
+    private Map<String, String> keyTable;
+    // Nodes created under this token are only reachable from us and can be changed in place
+    private Object owner = new Object();
+    // Snapshot handed out by borrowSnapshot() & our owner tokens before & after it was taken
+    private FileData borrowed;
+    private Object ownerBeforeBorrow;
+    private Object ownerAfterBorrow;
+    private DataNode localMap;
+    // Changed whenever layers are created, replaced or removed, see #getLayer(String)
+    private volatile int structureVersion;
+    // Whether layers were created, replaced or removed during the current change
+    private boolean changedLayers;
+    // Sorted keys of all values, null unless enabled
+    private volatile NavigableSet<String> keyIndex;
+    private final List<ValueIndex> valueIndexes = new CopyOnWriteArrayList<>();
 
     public FileData(final Map<String, Object> map, final DataType dataType) {
-        this.localMap = dataType.getMapImplementation();
+        this.dataType = dataType;
+        this.readOnly = false;
+        this.localMap = toNode(map);
+    }
 
-        this.localMap.putAll(map);
+    private FileData(final DataNode localMap, final DataType dataType, final boolean readOnly) {
+        this.dataType = dataType;
+        this.readOnly = readOnly;
+        this.localMap = localMap;
     }
 
     public FileData(final JSONObject jsonObject) {
-        this.localMap = new HashMap<>(jsonObject.toMap());
+        this(jsonObject, DataType.UNSORTED);
     }
 
     public FileData(final JSONObject jsonObject, final DataType dataType) {
-        this.localMap = dataType.getMapImplementation();
-        this.localMap.putAll(jsonObject.toMap());
+        this(jsonObject.toMap(), dataType);
     }
 
-    public void clear() {
-        this.localMap.clear();
+    public synchronized void clear() {
+        checkWritable();
+        replaceRoot(createNode(), false);
     }
 
     /**
@@ -44,12 +83,42 @@ public class FileData {
      *
      * @param map Map to load data from
      */
-    public void loadData(final Map<String, Object> map) {
-        clear();
+    public synchronized void loadData(final Map<String, Object> map) {
+        checkWritable();
+        // Only keep the keys of our new data
+        this.keyTable = null;
+        replaceRoot(map == null ? createNode() : toNode(map), false);
+    }
 
-        if (map != null) {
-            this.localMap.putAll(map);
+    /**
+     * Loads data from a map like {@link #loadData(Map)} & finds the keys which changed.
+     *
+     * @param map Map to load data from
+     * @return Difference between our old & new data
+     */
+    public synchronized FileDataDiff loadDataAndDiff(final Map<String, Object> map) {
+        checkWritable();
+        this.keyTable = null;
+        return replaceRoot(map == null ? createNode() : toNode(map), true);
+    }
+
+    // Replaces all our data. The diff is only computed if requested or needed by our indexes
+    @Nullable
+    private FileDataDiff replaceRoot(final DataNode root, final boolean diff) {
+        final DataNode before = this.localMap;
+        this.localMap = root;
+        this.structureVersion++;
+        rebuildKeyIndex();
+        if (!diff && this.valueIndexes.isEmpty()) {
+            return null;
+        }
+        final FileDataDiff result = FileDataDiff.between(before, root);
+        for (final ValueIndex index : this.valueIndexes) {
+            result.getRemoved().forEach(key -> index.update(root, key));
+            result.getChanged().forEach(key -> index.update(root, key));
+            result.getAdded().forEach(key -> index.update(root, key));
         }
+        return result;
     }
 
     /**
@@ -59,21 +128,65 @@ public class FileData {
      * @return the value assigned to the given key or null if the key does not exist.
      */
     public Object get(final String key) {
-        final String[] parts = key.split("\\.");
-        return get(this.localMap, parts, 0);
+        return get(this.localMap, key);
+    }
+
+    /**
+     * Gets the value assigned to a key relative to a layer of this FileData.
+     *
+     * @param layer Layer returned by {@link #getLayer(String)}
+     * @param key   the key to look for.
+     * @return the value assigned to the given key or null if the key does not exist.
+     */
+    public Object get(final Map<String, Object> layer, final String key) {
+        if (key.indexOf('.') == -1) {
+            return layer.get(key);
+        }
+        return get(layer, key.split("\\."), 0);
+    }
+
+    /**
+     * Resolves a layer, for example to look up many keys of a section. Changes of values inside of
+     * the layer are visible in it as long as it {@link #isCurrent(DataNode, int)}.
+     *
+     * @param key Key of the layer
+     * @return Read-only layer or null if there is no layer at the given key.
+     */
+    @Nullable
+    public DataNode getLayer(final String key) {
+        final Object layer = get(key);
+        return layer instanceof DataNode ? (DataNode) layer : null;
+    }
+
+    /**
+     * @return Version of the structure of our layers. Changes whenever layers are created, replaced
+     * or removed, but not if only values inside of existing layers change.
+     */
+    public int getStructureVersion() {
+        return this.structureVersion;
+    }
+
+    /**
+     * Checks in O(1) whether a layer is still part of our data.
+     *
+     * @param layer            Layer returned by {@link #getLayer(String)}, may be null
+     * @param structureVersion {@link #getStructureVersion()} read before resolving the layer
+     * @return Whether {@link #getLayer(String)} would still return the given layer.
+     */
+    public boolean isCurrent(@Nullable final DataNode layer, final int structureVersion) {
+        return this.structureVersion == structureVersion && (layer == null || !layer.copied);
     }
 
     private Object get(final Map<String, Object> map, final String[] key, final int id) {
-        if (id < key.length - 1) {
-            if (map.get(key[id]) instanceof Map) {
-                final Map<String, Object> tempMap = (Map<String, Object>) map.get(key[id]);
-                return get(tempMap, key, id + 1);
-            } else {
+        Map<String, Object> current = map;
+        for (int i = id; i < key.length - 1; i++) {
+            final Object next = current.get(key[i]);
+            if (!(next instanceof Map)) {
                 return null;
             }
-        } else {
-            return map.get(key[id]);
+            current = (Map<String, Object>) next;
         }
+        return current.get(key[key.length - 1]);
     }
 
     /**
@@ -83,28 +196,63 @@ public class FileData {
      * @param value the value to be assigned to the key.
      */
     public synchronized void insert(final String key, final Object value) {
-        final String[] parts = key.split("\\.");
-        this.localMap.put(
-                parts[0],
-                this.localMap.containsKey(parts[0]) && this.localMap.get(parts[0]) instanceof Map
-                        ? insert((Map<String, Object>) this.localMap.get(parts[0]), parts, value, 1)
-                        : insert(new HashMap<>(), parts, value, 1));
+        checkWritable();
+        if (value == null && !this.dataType.isSupportingNullValues()) {
+            remove(key);
+            return;
+        }
+        insert(key.split("\\."), key, value);
     }
 
-    private Object insert(
-            final Map<String, Object> map, final String[] key, final Object value,
-            final int id) {
-        if (id < key.length) {
-            final Map<String, Object> tempMap = new HashMap<>(map);
-            final Map<String, Object> childMap =
-                    map.containsKey(key[id]) && map.get(key[id]) instanceof Map
-                            ? (Map<String, Object>) map.get(key[id])
-                            : new HashMap<>();
-            tempMap.put(key[id], insert(childMap, key, value, id + 1));
-            return tempMap;
-        } else {
-            return value;
+    private void insert(final String[] key, final String fullKey, final Object value) {
+        final Object converted = value instanceof Map
+                ? toNode((Map<?, ?>) value)
+                : NumberArrays.compact(value);
+        final DataNode[] path = new DataNode[key.length];
+        // Changes of the sizes caused by layers we had to create on our way down
+        final int[] createdLeafs = new int[key.length];
+        final int[] createdSizes = new int[key.length];
+
+        DataNode node = ownedRoot();
+        for (int i = 0; i < key.length - 1; i++) {
+            path[i] = node;
+            final Object child = node.entries.get(key[i]);
+            if (child instanceof DataNode) {
+                node = ownedChild(node, key[i], (DataNode) child);
+                continue;
+            }
+
+            final DataNode created = createNode();
+            this.changedLayers = true;
+            final boolean replaced = node.entries.containsKey(key[i]);
+            node.entries.put(intern(key[i]), created);
+            createdLeafs[i] = replaced ? -1 : 0;
+            createdSizes[i] = replaced ? 0 : 1;
+            node = created;
+        }
+        path[key.length - 1] = node;
+
+        final String last = key[key.length - 1];
+        final boolean replaced = node.entries.containsKey(last);
+        final Object old = node.entries.put(intern(last), converted);
+        if (converted instanceof DataNode || old instanceof DataNode) {
+            this.changedLayers = true;
         }
+        if (this.keyIndex != null) {
+            indexInsert(key, fullKey, createdLeafs, old, converted);
+        }
+
+        int leafDelta = DataNode.leafCountOf(converted) - (replaced ? DataNode.leafCountOf(old) : 0);
+        int sizeDelta = DataNode.deepSizeOf(converted) - (replaced ? DataNode.deepSizeOf(old) : 0);
+        for (int i = key.length - 1; i >= 0; i--) {
+            leafDelta += createdLeafs[i];
+            sizeDelta += createdSizes[i];
+            path[i].leafCount += leafDelta;
+            path[i].deepSize += sizeDelta;
+            path[i].hash = 0;
+        }
+        publishStructureChange();
+        updateValueIndexes(fullKey);
     }
 
     /**
@@ -114,69 +262,85 @@ public class FileData {
      * @return true if the key exists, otherwise false.
      */
     public boolean containsKey(final String key) {
-        final String[] parts = key.split("\\.");
-        return containsKey(this.localMap, parts, 0);
+        return containsKey(this.localMap, key);
+    }
+
+    /**
+     * Check whether a layer of this FileData contains a certain key.
+     *
+     * @param layer Layer returned by {@link #getLayer(String)}
+     * @param key   the key to be looked for.
+     * @return true if the key exists, otherwise false.
+     */
+    public boolean containsKey(final Map<String, Object> layer, final String key) {
+        if (key.indexOf('.') == -1) {
+            return layer.containsKey(key);
+        }
+        return containsKey(layer, key.split("\\."), 0);
     }
 
     private boolean containsKey(
             final Map<String, Object> map, final String[] key,
             final int id) {
-        if (id < key.length - 1) {
-            if (map.containsKey(key[id]) && map.get(key[id]) instanceof Map) {
-                final Map<String, Object> tempMap = (Map<String, Object>) map.get(key[id]);
-                return containsKey(tempMap, key, id + 1);
-            } else {
+        Map<String, Object> current = map;
+        for (int i = id; i < key.length - 1; i++) {
+            final Object next = current.get(key[i]);
+            if (!(next instanceof Map)) {
                 return false;
             }
-        } else {
-            return map.containsKey(key[id]);
+            current = (Map<String, Object>) next;
         }
+        return current.containsKey(key[key.length - 1]);
     }
 
     /**
-     * Remove a key with its assigned value from the map if given key exists.
+     * Remove a key with its assigned value from the map if given key exists. Layers which are empty
+     * afterwards are removed as well.
      *
      * @param key the key to be removed from the map.
      */
     public synchronized void remove(final String key) {
-        if (containsKey(key)) {
-            final String[] parts = key.split("\\.");
-            remove(parts);
+        checkWritable();
+        final String[] parts = key.split("\\.");
+        // Don't copy shared nodes if there is nothing to remove
+        if (!containsKey(this.localMap, parts, 0)) {
+            return;
         }
-    }
+        final DataNode[] path = new DataNode[parts.length];
 
-    private void remove(final @NotNull String[] key) {
-        if (key.length == 1) {
-            this.localMap.remove(key[0]);
-        } else {
-            final Object tempValue = this.localMap.get(key[0]);
-            if (tempValue instanceof Map) {
-                //noinspection unchecked
-                this.localMap.put(key[0], this.remove((Map) tempValue, key, 1));
-                if (((Map) this.localMap.get(key[0])).isEmpty()) {
-                    this.localMap.remove(key[0]);
-                }
-            }
+        DataNode node = ownedRoot();
+        for (int i = 0; i < parts.length - 1; i++) {
+            path[i] = node;
+            node = ownedChild(node, parts[i], (DataNode) node.entries.get(parts[i]));
         }
-    }
+        path[parts.length - 1] = node;
 
-    private Map<String, Object> remove(
-            final Map<String, Object> map,
-            final String[] key,
-            final int keyIndex) {
-        if (keyIndex < key.length - 1) {
-            final Object tempValue = map.get(key[keyIndex]);
-            if (tempValue instanceof Map) {
-                //noinspection unchecked
-                map.put(key[keyIndex], this.remove((Map) tempValue, key, keyIndex + 1));
-                if (((Map) map.get(key[keyIndex])).isEmpty()) {
-                    map.remove(key[keyIndex]);
-                }
+        final String last = parts[parts.length - 1];
+        final Object old = node.entries.remove(last);
+        if (old instanceof DataNode) {
+            this.changedLayers = true;
+        }
+        final NavigableSet<String> keyIndex = this.keyIndex;
+        if (keyIndex != null) {
+            keyIndex.remove(key);
+            keysStartingWith(keyIndex, key + ".").clear();
+        }
+
+        int leafDelta = -DataNode.leafCountOf(old);
+        int sizeDelta = -DataNode.deepSizeOf(old);
+        for (int i = parts.length - 1; i >= 0; i--) {
+            path[i].leafCount += leafDelta;
+            path[i].deepSize += sizeDelta;
+            path[i].hash = 0;
+            // Remove layers which became empty
+            if (i > 0 && path[i].entries.isEmpty()) {
+                path[i - 1].entries.remove(parts[i - 1]);
+                sizeDelta -= 1;
+                this.changedLayers = true;
             }
-        } else {
-            map.remove(key[keyIndex]);
         }
-        return map;
+        publishStructureChange();
+        updateValueIndexes(key);
     }
 
     /**
@@ -202,14 +366,27 @@ public class FileData {
     /**
      * get the keySet of all layers of the map combined.
      *
+     * <p>The returned set is a lazy view: Keys are resolved while iterating and are never copied
+     * into a new set. Changes to the data are reflected by the view. Every iterator walks the data
+     * as it was when the iterator was created, like a {@link #snapshot()}, so the data may be
+     * changed while iterating, for example to remove the returned keys.
+     *
      * @return the keySet of all layers of localMap combined (Format: key.subkey).
      */
     public Set<String> keySet() {
-        return multiLayerKeySet(this.localMap);
+        return new LeafKeySet(null);
     }
 
+    /**
+     * get the entrySet of all layers of the map combined. Only entries which don't contain further
+     * layers are returned.
+     *
+     * <p>The returned set is a lazy view, see {@link #keySet()}.
+     *
+     * @return the entrySet of all layers of localMap combined (Format: key.subkey).
+     */
     public Set<Map.Entry<String, Object>> entrySet() {
-        return multiLayerEntrySet(this.localMap);
+        return new LeafEntrySet(null);
     }
 
     public Set<Map.Entry<String, Object>> singleLayerEntrySet() {
@@ -219,48 +396,56 @@ public class FileData {
     /**
      * get the keySet of all sublayers of the given key combined.
      *
+     * <p>The returned set is a lazy view, see {@link #keySet()}.
+     *
      * @param key the key of the layer
      * @return the keySet of all sublayers of the given key or an empty set if the key does not exist
      * (Format: key.subkey).
      */
     public Set<String> keySet(final String key) {
-        return get(key) instanceof Map
-                ? multiLayerKeySet((Map<String, Object>) get(key))
-                : new HashSet<>();
+        final Object layer = get(key);
+        return layer instanceof DataNode
+                ? new LeafKeySet((DataNode) layer)
+                : Collections.emptySet();
     }
 
     /**
-     * Private helper method to get the key set of an map containing maps recursively
+     * Walks all layers of the map and passes every entry which doesn't contain further layers to
+     * the consumer. Cheaper than iterating {@link #entrySet()} since no entries are created.
+     *
+     * @param consumer Consumer accepting the key (Format: key.subkey) & the value.
      */
-    private Set<String> multiLayerKeySet(final Map<String, Object> map) {
-        final Set<String> out = new HashSet<>();
+    public void forEachLeaf(final BiConsumer<String, Object> consumer) {
+        forEachLeaf(this.localMap, null, consumer);
+    }
+
+    private void forEachLeaf(
+            final Map<String, Object> map,
+            final String prefix,
+            final BiConsumer<String, Object> consumer) {
         for (final Map.Entry<String, Object> entry : map.entrySet()) {
+            final String key = prefix == null ? entry.getKey() : prefix + "." + entry.getKey();
             if (entry.getValue() instanceof Map) {
-                for (final String tempKey : multiLayerKeySet(
-                        (Map<String, Object>) entry.getValue())) {
-                    out.add(entry.getKey() + "." + tempKey);
-                }
+                forEachLeaf((Map<String, Object>) entry.getValue(), key, consumer);
             } else {
-                out.add(entry.getKey());
+                consumer.accept(key, entry.getValue());
             }
         }
-        return out;
     }
 
-    private Set<Map.Entry<String, Object>> multiLayerEntrySet(
-            final Map<String, Object> map) {
-        final Set<Map.Entry<String, Object>> out = new HashSet<>();
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            if (map.get(entry.getKey()) instanceof Map) {
-                for (final String tempKey :
-                        multiLayerKeySet((Map<String, Object>) map.get(entry.getKey()))) {
-                    out.add(new SimpleEntry<>(entry.getKey() + "." + tempKey, entry.getValue()));
-                }
-            } else {
-                out.add(entry);
-            }
-        }
-        return out;
+    /**
+     * @return Lazy stream of all entries which don't contain further layers (Format: key.subkey).
+     */
+    public Stream<Map.Entry<String, Object>> stream() {
+        return StreamSupport.stream(entrySet().spliterator(), false);
+    }
+
+    /**
+     * Queries the values which don't contain further layers, see {@link FileDataQuery}. The query
+     * is evaluated on a snapshot of the data taken once it's run.
+     */
+    public FileDataQuery query() {
+        return new FileDataQuery(this::sharedRoot);
     }
 
     /**
@@ -279,52 +464,426 @@ public class FileData {
      * @return the size of the given layer or 0 if the key does not exist.
      */
     public int singleLayerSize(final String key) {
-        return get(key) instanceof Map ? ((Map) get(key)).size() : 0;
+        final Object layer = get(key);
+        return layer instanceof Map ? ((Map<?, ?>) layer).size() : 0;
     }
 
     /**
-     * Get the size of the local map.
+     * Get the size of the local map. Sizes are maintained while inserting & removing data, so this
+     * is O(1).
      *
      * @return the size of all layers of localMap combined.
      */
     public int size() {
-        return this.localMap.size();
+        return this.localMap.deepSize;
     }
 
     /**
-     * get the size of all sublayers of the given key combined.
+     * get the size of all sublayers of the given key combined. Only needs to resolve the key.
      *
      * @param key the key of the layer
      * @return the size of all sublayers of the given key or 0 if the key does not exist.
      */
     public int size(final String key) {
-        return this.localMap.size();
+        final Object layer = get(key);
+        return layer instanceof DataNode ? ((DataNode) layer).deepSize : 0;
+    }
+
+    /**
+     * @return the amount of keys in all layers which don't contain further layers. Equals the size
+     * of {@link #keySet()}.
+     */
+    public int leafCount() {
+        return this.localMap.leafCount;
+    }
+
+    /**
+     * @param key the key of the layer
+     * @return the amount of keys in all sublayers of the given key which don't contain further
+     * layers. 1 if the key has a plain value, 0 if the key does not exist.
+     */
+    public int leafCount(final String key) {
+        final String[] parts = key.split("\\.");
+        if (!containsKey(this.localMap, parts, 0)) {
+            return 0;
+        }
+        return DataNode.leafCountOf(get(this.localMap, parts, 0));
+    }
+
+    /**
+     * Inserts the entries of a map into the top layer. Keys aren't split into layers.
+     *
+     * @param map Map to insert.
+     */
+    public synchronized void putAll(final Map<String, Object> map) {
+        checkWritable();
+        for (final Map.Entry<String, Object> entry : map.entrySet()) {
+            insert(new String[]{entry.getKey()}, entry.getKey(), entry.getValue());
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Sorted key index
+    // ----------------------------------------------------------------------------------------------------
+
+    /**
+     * Enables or disables the sorted index of our keys. The index is kept up to date on every
+     * change, so the sorted key queries don't have to walk & sort all layers. Snapshots & copies
+     * aren't indexed.
+     *
+     * @param keyIndexed Whether to keep a sorted index of our keys
+     */
+    public synchronized void setKeyIndexed(final boolean keyIndexed) {
+        if (keyIndexed == isKeyIndexed()) {
+            return;
+        }
+        this.keyIndex = keyIndexed ? createKeyIndex() : null;
+    }
+
+    public boolean isKeyIndexed() {
+        return this.keyIndex != null;
+    }
+
+    /**
+     * Gets the keys of all values starting with a prefix in lexicographic order. The prefix isn't
+     * split into layers, so "players.a" returns the keys of all players starting with "a".
+     *
+     * @param prefix Prefix of the keys (Format: key.subkey), empty for all keys.
+     * @return Read-only sorted view of the keys. Only reflects later changes if we are {@link
+     * #isKeyIndexed()}.
+     */
+    public NavigableSet<String> keys(final String prefix) {
+        return Collections.unmodifiableNavigableSet(keysStartingWith(sortedKeys(), prefix));
+    }
+
+    /**
+     * Gets one page of {@link #keys(String)}. Pass the last key of a page to get the next one.
+     *
+     * @param prefix Prefix of the keys, empty for all keys
+     * @param after  Last key of the previous page, null for the first page
+     * @param limit  Maximum amount of keys to return
+     * @return The keys following after the given key in lexicographic order.
+     */
+    public List<String> keys(final String prefix, @Nullable final String after, final int limit) {
+        Valid.checkBoolean(limit >= 0, "Limit mustn't be negative");
+        NavigableSet<String> keys = keysStartingWith(sortedKeys(), prefix);
+        if (after != null) {
+            keys = keys.tailSet(after, false);
+        }
+        final List<String> page = new ArrayList<>(Math.min(limit, 64));
+        for (final String key : keys) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(key);
+        }
+        return page;
+    }
+
+    /**
+     * Gets the keys of all values in a lexicographic range.
+     *
+     * @param from Lowest key, inclusive
+     * @param to   Highest key, exclusive
+     * @return Read-only sorted view of the keys, see {@link #keys(String)}.
+     */
+    public NavigableSet<String> keyRange(final String from, final String to) {
+        if (from.compareTo(to) >= 0) {
+            return Collections.emptyNavigableSet();
+        }
+        return Collections.unmodifiableNavigableSet(sortedKeys().subSet(from, true, to, false));
+    }
+
+    private NavigableSet<String> sortedKeys() {
+        final NavigableSet<String> keyIndex = this.keyIndex;
+        return keyIndex != null ? keyIndex : new TreeSet<>(keySet());
+    }
+
+    private NavigableSet<String> createKeyIndex() {
+        final NavigableSet<String> keyIndex = new ConcurrentSkipListSet<>();
+        forEachLeaf((key, value) -> keyIndex.add(key));
+        return keyIndex;
+    }
+
+    private void rebuildKeyIndex() {
+        if (this.keyIndex != null) {
+            this.keyIndex = createKeyIndex();
+        }
+    }
+
+    private void indexInsert(
+            final String[] key,
+            final String fullKey,
+            final int[] createdLeafs,
+            final Object old,
+            final Object converted) {
+        final NavigableSet<String> keyIndex = this.keyIndex;
+        // Values replaced by the layers created on our way down
+        for (int i = 0; i < key.length - 1; i++) {
+            if (createdLeafs[i] == -1) {
+                keyIndex.remove(String.join(".", Arrays.copyOf(key, i + 1)));
+            }
+        }
+
+        if (old instanceof DataNode) {
+            keysStartingWith(keyIndex, fullKey + ".").clear();
+        }
+        if (converted instanceof DataNode) {
+            keyIndex.remove(fullKey);
+            forEachLeaf((DataNode) converted, fullKey, (leaf, value) -> keyIndex.add(leaf));
+        } else {
+            keyIndex.add(fullKey);
+        }
+    }
+
+    private static NavigableSet<String> keysStartingWith(
+            final NavigableSet<String> keys,
+            final String prefix) {
+        // Smallest string which is greater than all strings starting with the prefix
+        for (int i = prefix.length() - 1; i >= 0; i--) {
+            final char last = prefix.charAt(i);
+            if (last != Character.MAX_VALUE) {
+                final String end = prefix.substring(0, i) + (char) (last + 1);
+                return keys.subSet(prefix, true, end, false);
+            }
+        }
+        return keys.tailSet(prefix, true);
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Value indexes
+    // ----------------------------------------------------------------------------------------------------
+
+    /**
+     * Creates an index of the values of all keys matching a pattern, for example {@code
+     * users.*.name}, see {@link ValueIndex}. The index is kept up to date on every change.
+     * Snapshots & copies aren't indexed.
+     *
+     * @param pattern Keys to index, segments may be {@code *} to match any single segment
+     * @return The new index or the existing one if the pattern is indexed already.
+     */
+    public ValueIndex createIndex(@NonNull final String pattern) {
+        return createIndex(pattern, () -> {
+        });
+    }
+
+    synchronized ValueIndex createIndex(final String pattern, final Runnable beforeLookup) {
+        for (final ValueIndex index : this.valueIndexes) {
+            if (index.getPattern().equals(pattern)) {
+                return index;
+            }
+        }
+        final ValueIndex index = new ValueIndex(pattern, beforeLookup);
+        index.rebuild(this.localMap);
+        this.valueIndexes.add(index);
+        return index;
+    }
+
+    /**
+     * Stops updating an index created using {@link #createIndex(String)}.
+     */
+    public synchronized void dropIndex(@NonNull final ValueIndex index) {
+        this.valueIndexes.remove(index);
+    }
+
+    public List<ValueIndex> getIndexes() {
+        return Collections.unmodifiableList(this.valueIndexes);
+    }
+
+    private void updateValueIndexes(final String key) {
+        for (final ValueIndex index : this.valueIndexes) {
+            index.update(this.localMap, key);
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Creating layers
+    // ----------------------------------------------------------------------------------------------------
+
+    private DataNode createNode() {
+        return new DataNode(this.dataType.getMapImplementation(), this.owner);
     }
 
-    public void putAll(final Map<String, Object> map) {
-        this.localMap.putAll(map);
+    private String intern(final String key) {
+        if (!this.internKeys) {
+            return key;
+        }
+        if (this.keyTable == null) {
+            this.keyTable = new HashMap<>();
+        }
+        final String existing = this.keyTable.putIfAbsent(key, key);
+        return existing == null ? key : existing;
+    }
+
+    // Shallow copy of a shared node which we are allowed to change
+    private DataNode copyNode(final DataNode node) {
+        final DataNode copy = createNode();
+        copy.entries.putAll(node.entries);
+        copy.leafCount = node.leafCount;
+        copy.deepSize = node.deepSize;
+        copy.hash = node.hash;
+        return copy;
     }
 
-    private int size(final Map<String, Object> map) {
-        int size = map.size();
-        for (final String key : map.keySet()) {
-            if (map.get(key) instanceof Map) {
-                size += size((Map<String, Object>) map.get(key));
+    private DataNode ownedRoot() {
+        if (this.localMap.owner != this.owner) {
+            final DataNode root = this.localMap;
+            this.localMap = copyNode(root);
+            root.copied = true;
+        }
+        return this.localMap;
+    }
+
+    private DataNode ownedChild(final DataNode parent, final String key, final DataNode child) {
+        if (child.owner == this.owner) {
+            return child;
+        }
+        final DataNode copy = copyNode(child);
+        parent.entries.put(key, copy);
+        // Copies share their sublayers, so only the copied layer itself is outdated
+        child.copied = true;
+        return copy;
+    }
+
+    // Called after changes, so readers seeing the new version also see the new layers
+    private void publishStructureChange() {
+        if (this.changedLayers) {
+            this.changedLayers = false;
+            this.structureVersion++;
+        }
+    }
+
+    private void checkWritable() {
+        if (this.readOnly) {
+            throw new UnsupportedOperationException("Snapshots of FileData are read-only");
+        }
+    }
+
+    // Copies a map and all its sublayers into nodes.
+    private DataNode toNode(final Map<?, ?> map) {
+        final DataNode node = createNode();
+        for (final Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getValue() == null && !this.dataType.isSupportingNullValues()) {
+                continue;
             }
+            final Object value = entry.getValue() instanceof Map
+                    ? toNode((Map<?, ?>) entry.getValue())
+                    : NumberArrays.compact(entry.getValue());
+            node.entries.put(intern(String.valueOf(entry.getKey())), value);
+            node.leafCount += DataNode.leafCountOf(value);
+            node.deepSize += DataNode.deepSizeOf(value);
         }
-        return size;
+        return node;
     }
 
     // ----------------------------------------------------------------------------------------------------
     // Utility functions
     // ----------------------------------------------------------------------------------------------------
 
-    public Map<String, Object> toMap() {
-        if (this.localMap != null) {
-            return this.localMap;
-        } else {
-            return new HashMap<>();
+    /**
+     * Takes a snapshot of the current data in O(1). The data is shared until either side changes.
+     *
+     * @return Read-only FileData which isn't affected by later changes of this FileData.
+     */
+    public synchronized FileData snapshot() {
+        return share(true);
+    }
+
+    /**
+     * Copies the current data in O(1), see {@link #snapshot()}.
+     *
+     * @return FileData which can be changed independently of this FileData.
+     */
+    public synchronized FileData copy() {
+        return share(false);
+    }
+
+    /**
+     * Takes a snapshot like {@link #snapshot()} which is only read until it's passed to {@link
+     * #release(FileData)}, for example to write it to a file. If no other snapshot or copy was taken
+     * meanwhile, our layers don't need to be copied before changing them after the release.
+     *
+     * @return Read-only FileData which mustn't be used after releasing it.
+     */
+    public synchronized FileData borrowSnapshot() {
+        this.ownerBeforeBorrow = this.owner;
+        this.borrowed = share(true);
+        this.ownerAfterBorrow = this.owner;
+        return this.borrowed;
+    }
+
+    /**
+     * Hands back a snapshot taken using {@link #borrowSnapshot()}.
+     */
+    public synchronized void release(@NonNull final FileData snapshot) {
+        if (snapshot != this.borrowed) {
+            return;
         }
+        // Nodes of the old token are only shared with the released snapshot, unless our data was
+        // shared again. Layers created while the snapshot was borrowed will be copied once more.
+        if (this.owner == this.ownerAfterBorrow) {
+            this.owner = this.ownerBeforeBorrow;
+        }
+        this.borrowed = null;
+        this.ownerBeforeBorrow = null;
+        this.ownerAfterBorrow = null;
+    }
+
+    /**
+     * Replaces our data with the data of another FileData in O(1), for example to roll back to a
+     * {@link #snapshot()}.
+     *
+     * @param other FileData to take the data of
+     */
+    public void restore(final FileData other) {
+        final DataNode root;
+        synchronized (other) {
+            root = other.share(true).localMap;
+        }
+        synchronized (this) {
+            checkWritable();
+            replaceRoot(root, false);
+        }
+    }
+
+    private FileData share(final boolean readOnly) {
+        return new FileData(sharedRoot(), this.dataType, readOnly);
+    }
+
+    // Root which isn't affected by later changes
+    private synchronized DataNode sharedRoot() {
+        // Our nodes are shared from now on: We'll copy them before changing them the next time
+        this.owner = new Object();
+        return this.localMap;
+    }
+
+    public boolean isReadOnly() {
+        return this.readOnly;
+    }
+
+    /**
+     * @return Read-only view of the data.
+     */
+    public Map<String, Object> toMap() {
+        return this.localMap;
+    }
+
+    /**
+     * Copies all layers of our data into maps of our {@link DataType} which can be changed freely.
+     * Changes of the copy don't affect this FileData.
+     *
+     * @return Mutable deep copy of the data, takes O(size) time.
+     */
+    public synchronized Map<String, Object> toMutableMap() {
+        return mutableCopy(this.localMap);
+    }
+
+    private Map<String, Object> mutableCopy(final DataNode node) {
+        final Map<String, Object> result = this.dataType.getMapImplementation();
+        node.entries.forEach((key, value) -> result.put(
+                key,
+                value instanceof DataNode ? mutableCopy((DataNode) value) : value));
+        return result;
     }
 
     public JSONObject toJsonObject() {
@@ -356,4 +915,210 @@ public class FileData {
             return this.localMap.equals(fileData.localMap);
         }
     }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Lazy views
+    // ----------------------------------------------------------------------------------------------------
+
+    private final class LeafKeySet extends AbstractSet<String> {
+
+        // Null for views of the whole data, which follow replacements of our root
+        private final DataNode layer;
+
+        private LeafKeySet(final DataNode layer) {
+            this.layer = layer;
+        }
+
+        private DataNode root() {
+            return this.layer == null ? FileData.this.localMap : this.layer;
+        }
+
+        // Our nodes are shared from now on, so changes while iterating copy them
+        private DataNode frozenRoot() {
+            final DataNode root = sharedRoot();
+            return this.layer == null ? root : this.layer;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            final LeafIterator leafs = new LeafIterator(frozenRoot());
+            return new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return leafs.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    return leafs.next().getKey();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return root().leafCount;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return root().leafCount == 0;
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof String)) {
+                return false;
+            }
+            final String[] parts = ((String) obj).split("\\.");
+            final DataNode root = root();
+            return containsKey(root, parts, 0) && !(get(root, parts, 0) instanceof Map);
+        }
+    }
+
+    private final class LeafEntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+        // Null for views of the whole data, which follow replacements of our root
+        private final DataNode layer;
+
+        private LeafEntrySet(final DataNode layer) {
+            this.layer = layer;
+        }
+
+        private DataNode root() {
+            return this.layer == null ? FileData.this.localMap : this.layer;
+        }
+
+        // Our nodes are shared from now on, so changes while iterating copy them
+        private DataNode frozenRoot() {
+            final DataNode root = sharedRoot();
+            return this.layer == null ? root : this.layer;
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            return new LeafIterator(frozenRoot());
+        }
+
+        @Override
+        public int size() {
+            return root().leafCount;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return root().leafCount == 0;
+        }
+    }
+
+    /**
+     * Depth-first iterator over all entries which don't contain further layers. Keys of the returned
+     * entries are only concatenated when they are requested.
+     */
+    private static final class LeafIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private final Deque<Layer> layers = new ArrayDeque<>();
+        private LeafEntry next;
+
+        private LeafIterator(final Map<String, Object> root) {
+            this.layers.push(new Layer(null, root.entrySet().iterator()));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.next == null && !this.layers.isEmpty()) {
+                final Layer layer = this.layers.peek();
+                if (!layer.iterator.hasNext()) {
+                    this.layers.pop();
+                    continue;
+                }
+
+                final Map.Entry<String, Object> entry = layer.iterator.next();
+                if (entry.getValue() instanceof Map) {
+                    this.layers.push(new Layer(
+                            layer.childPrefix(entry.getKey()),
+                            ((Map<String, Object>) entry.getValue()).entrySet().iterator()));
+                } else {
+                    this.next = new LeafEntry(layer.prefix, entry.getKey(), entry.getValue());
+                }
+            }
+            return this.next != null;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final LeafEntry result = this.next;
+            this.next = null;
+            return result;
+        }
+    }
+
+    private static final class Layer {
+
+        private final String prefix;
+        private final Iterator<Map.Entry<String, Object>> iterator;
+
+        private Layer(final String prefix, final Iterator<Map.Entry<String, Object>> iterator) {
+            this.prefix = prefix;
+            this.iterator = iterator;
+        }
+
+        private String childPrefix(final String key) {
+            return this.prefix == null ? key : this.prefix + "." + key;
+        }
+    }
+
+    static final class LeafEntry implements Map.Entry<String, Object> {
+
+        private final String prefix;
+        private final String localKey;
+        private final Object value;
+        private String key;
+
+        LeafEntry(final String prefix, final String localKey, final Object value) {
+            this.prefix = prefix;
+            this.localKey = localKey;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            if (this.key == null) {
+                this.key = this.prefix == null ? this.localKey : this.prefix + "." + this.localKey;
+            }
+            return this.key;
+        }
+
+        @Override
+        public Object getValue() {
+            return this.value;
+        }
+
+        @Override
+        public Object setValue(final Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            return getKey().equals(entry.getKey()) && Objects.equals(this.value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(this.value);
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + this.value;
+        }
+    }
 }
@@ -0,0 +1,143 @@
+package de.leonhard.storage.internal;
+
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * The keys which differ between two versions of a {@link FileData}.
+ *
+ * <p>If a whole layer was added or removed, only the key of the layer is contained. Layers which
+ * are the same node are skipped, layers with different sizes or {@link DataNode#structuralHash()}
+ * are known to differ without comparing their content, see {@link DataNode#sameContent(DataNode)}.
+ */
+public final class FileDataDiff {
+
+    private final Set<String> added = new LinkedHashSet<>();
+    private final Set<String> removed = new LinkedHashSet<>();
+    private final Set<String> changed = new LinkedHashSet<>();
+
+    private FileDataDiff() {
+    }
+
+    /**
+     * @param before Old version of the data
+     * @param after  New version of the data
+     * @return Keys which were added, removed or changed (Format: key.subkey)
+     */
+    public static FileDataDiff between(@NonNull final FileData before, @NonNull final FileData after) {
+        return between(before.toMap(), after.toMap());
+    }
+
+    /**
+     * @param before Old version of the data
+     * @param after  New version of the data
+     * @return Keys which were added, removed or changed (Format: key.subkey)
+     */
+    public static FileDataDiff between(
+            @NonNull final Map<String, Object> before,
+            @NonNull final Map<String, Object> after) {
+        final FileDataDiff diff = new FileDataDiff();
+        diff.compare(null, before, after);
+        return diff;
+    }
+
+    /**
+     * @return Keys which didn't exist before.
+     */
+    public Set<String> getAdded() {
+        return Collections.unmodifiableSet(this.added);
+    }
+
+    /**
+     * @return Keys which don't exist anymore.
+     */
+    public Set<String> getRemoved() {
+        return Collections.unmodifiableSet(this.removed);
+    }
+
+    /**
+     * @return Keys which exist in both versions but have different values.
+     */
+    public Set<String> getChanged() {
+        return Collections.unmodifiableSet(this.changed);
+    }
+
+    public boolean isEmpty() {
+        return this.added.isEmpty() && this.removed.isEmpty() && this.changed.isEmpty();
+    }
+
+    /**
+     * Useful to find out whether values derived from a key need to be recomputed.
+     *
+     * @param key Key to check (Format: key.subkey)
+     * @return Whether the key, a key in its layer or a layer containing it differs.
+     */
+    public boolean affects(@NonNull final String key) {
+        return affects(this.added, key) || affects(this.removed, key) || affects(this.changed, key);
+    }
+
+    @Override
+    public String toString() {
+        return "FileDataDiff{added=" + this.added
+                + ", removed=" + this.removed
+                + ", changed=" + this.changed + "}";
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Internal stuff
+    // ----------------------------------------------------------------------------------------------------
+
+    private static boolean affects(final Set<String> keys, final String key) {
+        for (final String candidate : keys) {
+            if (candidate.equals(key) || isBelow(candidate, key) || isBelow(key, candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Is child a key in the layer of parent?
+    private static boolean isBelow(final String child, final String parent) {
+        return child.length() > parent.length()
+                && child.charAt(parent.length()) == '.'
+                && child.startsWith(parent);
+    }
+
+    private void compare(
+            final String prefix,
+            final Map<?, ?> before,
+            final Map<?, ?> after) {
+        for (final Map.Entry<?, ?> entry : before.entrySet()) {
+            final String key = prefix == null
+                    ? String.valueOf(entry.getKey())
+                    : prefix + "." + entry.getKey();
+            if (!after.containsKey(entry.getKey())) {
+                this.removed.add(key);
+                continue;
+            }
+
+            final Object oldValue = entry.getValue();
+            final Object newValue = after.get(entry.getKey());
+            if (oldValue == newValue) {
+                continue;
+            }
+
+            if (oldValue instanceof DataNode && newValue instanceof DataNode) {
+                if (!((DataNode) oldValue).sameContent((DataNode) newValue)) {
+                    compare(key, (DataNode) oldValue, (DataNode) newValue);
+                }
+            } else if (oldValue instanceof Map && newValue instanceof Map) {
+                compare(key, (Map<?, ?>) oldValue, (Map<?, ?>) newValue);
+            } else if (!Objects.equals(oldValue, newValue)) {
+                this.changed.add(key);
+            }
+        }
+
+        for (final Object key : after.keySet()) {
+            if (!before.containsKey(key)) {
+                this.added.add(prefix == null ? String.valueOf(key) : prefix + "." + key);
+            }
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.util.Valid;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy query over the values of a {@link FileData} which don't contain further layers.
+ *
+ * <p>Paths are filtered using globs like {@code users.*.balance}: {@code *} matches any single
+ * segment & a trailing {@code **} matches any amount of segments. The glob is evaluated while
+ * walking the layers, so only the layers matching it are visited & literal segments are looked up
+ * directly. Value predicates are tested before any entry or key is created.
+ *
+ * <pre>
+ * final List&lt;String&gt; rich = json.query()
+ *     .path("users.*.balance")
+ *     .where(Integer.class, balance -&gt; balance &gt;= 1000)
+ *     .keys();
+ * </pre>
+ *
+ * <p>Parallel queries split the first layer matched by a wildcard into its subtrees, which are
+ * evaluated in the common fork-join pool.
+ */
+public final class FileDataQuery {
+
+    private static final String WILDCARD = "*";
+    private static final String DEEP_WILDCARD = "**";
+
+    private final Supplier<DataNode> root;
+    private String[] segments = {DEEP_WILDCARD};
+    private Predicate<Object> filter;
+    private boolean parallel;
+
+    FileDataQuery(final Supplier<DataNode> root) {
+        this.root = root;
+    }
+
+    /**
+     * Only matches keys matching the glob.
+     *
+     * @param glob Key of which segments may be {@code *}. The last segment may be {@code **}
+     */
+    public FileDataQuery path(@NonNull final String glob) {
+        final String[] parts = glob.split("\\.", -1);
+        for (int i = 0; i < parts.length; i++) {
+            Valid.checkBoolean(!parts[i].isEmpty(), "Empty segment in glob '" + glob + "'");
+            Valid.checkBoolean(
+                    !DEEP_WILDCARD.equals(parts[i]) || i == parts.length - 1,
+                    "'**' is only supported as last segment of '" + glob + "'");
+        }
+        this.segments = parts;
+        return this;
+    }
+
+    /**
+     * Only matches values accepted by the predicate. Multiple predicates must all match.
+     */
+    public FileDataQuery where(@NonNull final Predicate<Object> predicate) {
+        this.filter = this.filter == null ? predicate : this.filter.and(predicate);
+        return this;
+    }
+
+    /**
+     * Only matches values of the given type accepted by the predicate. Numbers & booleans stored as
+     * strings, like all values of YAML files, are converted first.
+     *
+     * @param type Boxed type of the values, for example {@code Integer.class}
+     */
+    public <T> FileDataQuery where(
+            @NonNull final Class<T> type,
+            @NonNull final Predicate<? super T> predicate) {
+        Valid.checkBoolean(!type.isPrimitive(), "Use the boxed type instead of " + type);
+        return where(value -> {
+            final T converted = convert(value, type);
+            return converted != null && predicate.test(converted);
+        });
+    }
+
+    /**
+     * Evaluates the query in parallel for large amounts of data. Consumers passed to {@link
+     * #forEach(BiConsumer)} must be thread-safe then.
+     */
+    public FileDataQuery parallel() {
+        this.parallel = true;
+        return this;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Running the query
+    // ----------------------------------------------------------------------------------------------------
+
+    /**
+     * @return Lazy stream of the matching entries (Format: key.subkey).
+     */
+    public Stream<Map.Entry<String, Object>> stream() {
+        final String[] segments = this.segments;
+        final Predicate<Object> filter = this.filter;
+        final boolean parallel = this.parallel;
+        return StreamSupport.stream(
+                () -> new MatchSpliterator(segments, filter, this.root.get(), parallel),
+                Spliterator.DISTINCT | Spliterator.NONNULL,
+                parallel);
+    }
+
+    public void forEach(@NonNull final BiConsumer<String, Object> consumer) {
+        stream().forEach(entry -> consumer.accept(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * @return Keys of the matching entries in no particular order (Format: key.subkey).
+     */
+    public List<String> keys() {
+        return stream().map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+
+    /**
+     * @return Flat map of the matching keys (Format: key.subkey) & their values.
+     */
+    public Map<String, Object> toMap() {
+        return stream().collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    public long count() {
+        return stream().count();
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Internal stuff
+    // ----------------------------------------------------------------------------------------------------
+
+    @Nullable
+    static <T> T convert(final Object value, final Class<T> type) {
+        if (type.isInstance(value)) {
+            return type.cast(value);
+        }
+        if (type == Boolean.class && value instanceof String) {
+            final String string = (String) value;
+            if ("true".equalsIgnoreCase(string) || "false".equalsIgnoreCase(string)) {
+                return type.cast(Boolean.valueOf(string));
+            }
+            return null;
+        }
+        final Number number;
+        if (value instanceof Number) {
+            number = (Number) value;
+        } else if (value instanceof String) {
+            number = parseNumber((String) value);
+        } else {
+            return null;
+        }
+        if (number == null) {
+            return null;
+        }
+        if (type == Double.class) {
+            return type.cast(number.doubleValue());
+        } else if (type == Float.class) {
+            return type.cast(number.floatValue());
+        }
+        // Integral types only match integral values which fit into them
+        if (!isIntegral(number)) {
+            return null;
+        }
+        final long integral = number.longValue();
+        if (type == Long.class) {
+            return type.cast(integral);
+        } else if (type == Integer.class && integral == (int) integral) {
+            return type.cast((int) integral);
+        } else if (type == Short.class && integral == (short) integral) {
+            return type.cast((short) integral);
+        } else if (type == Byte.class && integral == (byte) integral) {
+            return type.cast((byte) integral);
+        }
+        return null;
+    }
+
+    private static boolean isIntegral(final Number number) {
+        return number instanceof Integer
+                || number instanceof Long
+                || number instanceof Short
+                || number instanceof Byte;
+    }
+
+    // Long or double of the string, null if it isn't a number. Avoids exceptions for most strings
+    @Nullable
+    static Number parseNumber(final String string) {
+        if (string.isEmpty()) {
+            return null;
+        }
+        boolean integral = true;
+        for (int i = 0; i < string.length(); i++) {
+            final char c = string.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E') {
+                integral = false;
+            } else if ((c < '0' || c > '9') && c != '-' && c != '+') {
+                return null;
+            }
+        }
+        try {
+            if (integral) {
+                return Long.valueOf(string);
+            }
+            return Double.valueOf(string);
+        } catch (final NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Depth-first walk of the layers matching the glob. Only the entries of the first layer matched
+     * by a wildcard are split, so every split walks whole subtrees.
+     */
+    @SuppressWarnings("unchecked")
+    private static final class MatchSpliterator implements Spliterator<Map.Entry<String, Object>> {
+
+        private final String[] segments;
+        @Nullable
+        private final Predicate<Object> filter;
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        // Unvisited entries of the first wildcard layer, only kept if we may be split
+        private Map.Entry<String, Object>[] splittable;
+        private int splittableIndex;
+        private int splittableEnd;
+        private String splittablePrefix;
+        private int splittableSegment;
+        private Map.Entry<String, Object> next;
+
+        private MatchSpliterator(
+                final String[] segments,
+                @Nullable final Predicate<Object> filter,
+                final DataNode root,
+                final boolean split) {
+            this.segments = segments;
+            this.filter = filter;
+            descend(root, 0, null, split);
+        }
+
+        private MatchSpliterator(final MatchSpliterator parent, final int from, final int to) {
+            this.segments = parent.segments;
+            this.filter = parent.filter;
+            this.splittable = parent.splittable;
+            this.splittableIndex = from;
+            this.splittableEnd = to;
+            this.splittablePrefix = parent.splittablePrefix;
+            this.splittableSegment = parent.splittableSegment;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super Map.Entry<String, Object>> action) {
+            while (this.next == null) {
+                if (!this.frames.isEmpty()) {
+                    final Frame frame = this.frames.peek();
+                    if (!frame.entries.hasNext()) {
+                        this.frames.pop();
+                        continue;
+                    }
+                    final Map.Entry<String, Object> entry = frame.entries.next();
+                    visit(frame.prefix, frame.segment, entry.getKey(), entry.getValue());
+                } else if (this.splittable != null && this.splittableIndex < this.splittableEnd) {
+                    final Map.Entry<String, Object> entry = this.splittable[this.splittableIndex++];
+                    visit(
+                            this.splittablePrefix,
+                            this.splittableSegment,
+                            entry.getKey(),
+                            entry.getValue());
+                } else {
+                    return false;
+                }
+            }
+            final Map.Entry<String, Object> result = this.next;
+            this.next = null;
+            action.accept(result);
+            return true;
+        }
+
+        @Override
+        public Spliterator<Map.Entry<String, Object>> trySplit() {
+            if (this.splittable == null || this.splittableEnd - this.splittableIndex < 2) {
+                return null;
+            }
+            final int middle = (this.splittableIndex + this.splittableEnd) >>> 1;
+            final MatchSpliterator split = new MatchSpliterator(this, middle, this.splittableEnd);
+            this.splittableEnd = middle;
+            return split;
+        }
+
+        @Override
+        public long estimateSize() {
+            // Subtrees left to walk, the amount of matches is unknown
+            return this.splittable == null
+                    ? Long.MAX_VALUE
+                    : this.splittableEnd - this.splittableIndex + this.frames.size();
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+
+        // Follows literal segments until reaching a wildcard or the end of the glob
+        private void descend(Object node, int segment, String prefix, final boolean split) {
+            while (segment < this.segments.length && !isWildcard(this.segments[segment])) {
+                if (!(node instanceof Map)) {
+                    return;
+                }
+                node = ((Map<String, Object>) node).get(this.segments[segment]);
+                if (node == null) {
+                    return;
+                }
+                prefix = childKey(prefix, this.segments[segment]);
+                segment++;
+            }
+
+            if (segment == this.segments.length) {
+                if (!(node instanceof Map)) {
+                    offer(null, prefix, node);
+                }
+                return;
+            }
+            if (!(node instanceof Map)) {
+                return;
+            }
+
+            final Set<Map.Entry<String, Object>> entries = ((Map<String, Object>) node).entrySet();
+            if (split) {
+                // Generic arrays can only be created raw
+                @SuppressWarnings("rawtypes")
+                final Map.Entry<String, Object>[] splittable = entries.toArray(new Map.Entry[0]);
+                this.splittable = splittable;
+                this.splittableEnd = this.splittable.length;
+                this.splittablePrefix = prefix;
+                this.splittableSegment = segment;
+            } else {
+                this.frames.push(new Frame(prefix, segment, entries.iterator()));
+            }
+        }
+
+        // Visits an entry of a layer matched by the wildcard at the given segment
+        private void visit(
+                final String prefix,
+                final int segment,
+                final String key,
+                final Object value) {
+            if (DEEP_WILDCARD.equals(this.segments[segment])) {
+                if (value instanceof Map) {
+                    this.frames.push(new Frame(
+                            childKey(prefix, key),
+                            segment,
+                            ((Map<String, Object>) value).entrySet().iterator()));
+                } else {
+                    offer(prefix, key, value);
+                }
+            } else if (segment == this.segments.length - 1) {
+                if (!(value instanceof Map)) {
+                    offer(prefix, key, value);
+                }
+            } else {
+                descend(value, segment + 1, childKey(prefix, key), false);
+            }
+        }
+
+        private void offer(final String prefix, final String key, final Object value) {
+            if (this.filter == null || this.filter.test(value)) {
+                this.next = new FileData.LeafEntry(prefix, key, value);
+            }
+        }
+
+        private static boolean isWildcard(final String segment) {
+            return WILDCARD.equals(segment) || DEEP_WILDCARD.equals(segment);
+        }
+
+        private static String childKey(final String prefix, final String key) {
+            return prefix == null ? key : prefix + "." + key;
+        }
+    }
+
+    private static final class Frame {
+
+        private final String prefix;
+        // Index of the wildcard segment matching the entries of this layer
+        private final int segment;
+        private final Iterator<Map.Entry<String, Object>> entries;
+
+        private Frame(
+                final String prefix,
+                final int segment,
+                final Iterator<Map.Entry<String, Object>> entries) {
+            this.prefix = prefix;
+            this.segment = segment;
+            this.entries = entries;
+        }
+    }
+}
@@ -1,5 +1,15 @@
 package de.leonhard.storage.internal;
 
+import de.leonhard.storage.internal.compression.Compression;
+import de.leonhard.storage.internal.compression.CompressionCodec;
+import de.leonhard.storage.internal.compression.CompressionCodecs;
+import de.leonhard.storage.internal.listener.ChangeListener;
+import de.leonhard.storage.internal.listener.Subscription;
+import de.leonhard.storage.internal.listener.Subscriptions;
+import de.leonhard.storage.internal.metrics.StorageEvent;
+import de.leonhard.storage.internal.metrics.StorageEvents;
+import de.leonhard.storage.internal.provider.LightningProviders;
+import de.leonhard.storage.internal.provider.MetricsProvider;
 import de.leonhard.storage.internal.settings.DataType;
 import de.leonhard.storage.internal.settings.ReloadSettings;
 import de.leonhard.storage.sections.FlatFileSection;
@@ -8,10 +18,16 @@ import de.leonhard.storage.util.Valid;
 import lombok.*;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Getter
 @ToString
@@ -20,41 +36,97 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
 
     protected final File file;
     protected final FileType fileType;
+    // Null if our file isn't compressed
+    @Nullable
+    protected Compression compression;
     @Setter
     protected ReloadSettings reloadSettings = ReloadSettings.INTELLIGENT;
     protected DataType dataType = DataType.UNSORTED;
     protected FileData fileData;
     @Setter
     protected String pathPrefix;
-    private long lastLoaded;
+    private volatile long lastLoaded;
+    // Fingerprint of the compressed content we last read or wrote, null if unknown
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile Long fingerprint;
+    // Length of the file when its fingerprint was taken
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile long fingerprintLength;
+    // Tail of the queue of asynchronous operations. They are run one after another per file
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Object asyncLock = new Object();
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private CompletableFuture<?> lastAsyncOperation = CompletableFuture.completedFuture(null);
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Subscriptions subscriptions = new Subscriptions();
+    // Our data is written outside of our monitor. Writers waiting for the write lock skip writing if
+    // a newer version of the data was written in the meantime
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Object writeLock = new Object();
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile long dataVersion;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile long writtenVersion;
 
     protected FlatFile(
             @NonNull final String name,
             @Nullable final String path,
             @NonNull final FileType fileType) {
+        this(name, path, fileType, null);
+    }
+
+    /**
+     * @param compression Compression of the file, null to detect it from names like "data.json.gz"
+     */
+    protected FlatFile(
+            @NonNull final String name,
+            @Nullable final String path,
+            @NonNull final FileType fileType,
+            @Nullable final Compression compression) {
         Valid.checkBoolean(!name.isEmpty(), "Name mustn't be empty");
         this.fileType = fileType;
+        this.compression = compression == null ? detectCompression(name) : compression;
+
+        String fileName = FileUtils.replaceExtensions(CompressionCodecs.stripExtension(name))
+                + "."
+                + fileType.getExtension();
+        if (this.compression != null) {
+            fileName = this.compression.fileName(fileName);
+        }
         if (path == null || path.isEmpty()) {
-            this.file = new File(FileUtils.replaceExtensions(name) + "." + fileType.getExtension());
+            this.file = new File(fileName);
         } else {
             final String fixedPath = path.replace("\\", "/");
-            this.file = new File(
-                    fixedPath
-                            + File.separator
-                            + FileUtils.replaceExtensions(name)
-                            + "."
-                            + fileType.getExtension());
+            this.file = new File(fixedPath + File.separator + fileName);
         }
     }
 
     protected FlatFile(@NonNull final File file, @NonNull final FileType fileType) {
         this.file = file;
         this.fileType = fileType;
+        this.compression = detectCompression(file.getName());
 
+        final String fileName = CompressionCodecs.stripExtension(file.getName());
         Valid.checkBoolean(
-                fileType == FileType.fromExtension(file),
+                fileType == FileType.fromExtension(new File(fileName)),
                 "Invalid file-extension for file type: '" + fileType + "'",
-                "Extension: '" + FileUtils.getExtension(file) + "'");
+                "Extension: '" + FileUtils.getExtension(new File(fileName)) + "'");
     }
 
     /**
@@ -64,8 +136,16 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
      */
     protected FlatFile(@NonNull final File file) {
         this.file = file;
+        this.compression = detectCompression(file.getName());
         // Might be null
-        this.fileType = FileType.fromFile(file);
+        this.fileType = FileType.fromExtension(
+                new File(CompressionCodecs.stripExtension(file.getName())));
+    }
+
+    @Nullable
+    private static Compression detectCompression(final String fileName) {
+        final CompressionCodec codec = CompressionCodecs.forFileName(fileName);
+        return codec == null ? null : Compression.of(codec);
     }
 
     // ----------------------------------------------------------------------------------------------------
@@ -109,6 +189,66 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
      */
     protected abstract void write(final FileData data) throws IOException;
 
+    /**
+     * Called after our data was loaded from the file, even if reading it failed.
+     */
+    protected void afterReload() {
+    }
+
+    /**
+     * @return Whether {@link #write(FileData)} keeps the data it was passed after returning. If not,
+     * the data is only borrowed from our FileData, see {@link FileData#borrowSnapshot()}.
+     */
+    protected boolean keepsWrittenData() {
+        return false;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Streams of our file, compressing its content if needed
+    // ----------------------------------------------------------------------------------------------------
+
+    protected final InputStream createInputStream() throws IOException {
+        return this.compression == null
+                ? Files.newInputStream(this.file.toPath())
+                : this.compression.createInputStream(this.file);
+    }
+
+    protected final OutputStream createOutputStream() throws IOException {
+        return this.compression == null
+                ? Files.newOutputStream(this.file.toPath())
+                : this.compression.createOutputStream(this.file);
+    }
+
+    protected final BufferedReader createReader(final Charset charset) throws IOException {
+        return new BufferedReader(new InputStreamReader(createInputStream(), charset));
+    }
+
+    protected final Writer createWriter(final Charset charset) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(createOutputStream(), charset));
+    }
+
+    /**
+     * Writes the content of the stream to our file, for example the defaults of a new file.
+     */
+    protected final void writeToFile(@NonNull final InputStream inputStream) {
+        if (this.compression == null) {
+            FileUtils.writeToFile(this.file, inputStream);
+            return;
+        }
+        try (final OutputStream outputStream = createOutputStream()) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+        } catch (final IOException ex) {
+            throw LightningProviders.exceptionHandler().create(
+                    ex,
+                    "Error while writing InputStream to '" + this.file.getName() + "'.",
+                    "In: '" + FileUtils.getParentDirPath(this.file) + "'");
+        }
+    }
+
     protected void handleReloadException(final IOException ioException) {
         final String fileName = this.fileType == null
                 ? "File"
@@ -122,12 +262,8 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
     // ---------------------------------------------------------------------------------------------------->
 
     @Override
-    public synchronized void set(final String key, final Object value) {
-        reloadIfNeeded();
-        final String finalKey = (this.pathPrefix == null) ? key : this.pathPrefix + "." + key;
-        this.fileData.insert(finalKey, value);
-        write();
-        this.lastLoaded = System.currentTimeMillis();
+    public void set(final String key, final Object value) {
+        set0(key, value, false);
     }
 
     @Override
@@ -174,11 +310,90 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
         return this.fileData.keySet(key);
     }
 
-    @Override
-    public synchronized final void remove(final String key) {
+    /**
+     * Sorted keys starting with a prefix, see {@link FileData#keys(String)}. Enable {@link
+     * FileData#setKeyIndexed(boolean)} to query large files often.
+     */
+    public final NavigableSet<String> keys(final String prefix) {
+        reloadIfNeeded();
+        return this.fileData.keys(prefix);
+    }
+
+    /**
+     * One page of sorted keys starting with a prefix, see {@link FileData#keys(String, String,
+     * int)}.
+     */
+    public final List<String> keys(
+            final String prefix,
+            @Nullable final String after,
+            final int limit) {
+        reloadIfNeeded();
+        return this.fileData.keys(prefix, after, limit);
+    }
+
+    /**
+     * Sorted keys in a lexicographic range, see {@link FileData#keyRange(String, String)}.
+     */
+    public final NavigableSet<String> keyRange(final String from, final String to) {
+        reloadIfNeeded();
+        return this.fileData.keyRange(from, to);
+    }
+
+    /**
+     * Queries the values of the file by their keys & values, see {@link FileDataQuery}.
+     */
+    public final FileDataQuery query() {
+        reloadIfNeeded();
+        return this.fileData.query();
+    }
+
+    /**
+     * Creates an index of the values of all keys matching a pattern, see {@link
+     * FileData#createIndex(String)}. Lookups reload the file if needed.
+     *
+     * @param pattern Keys to index, for example {@code users.*.name}
+     */
+    public final ValueIndex createIndex(final String pattern) {
+        reloadIfNeeded();
+        return this.fileData.createIndex(pattern, this::reloadIfNeeded);
+    }
+
+    public final void dropIndex(final ValueIndex index) {
+        this.fileData.dropIndex(index);
+    }
+
+    /**
+     * Walks all keys of the file, see {@link FileData#forEachLeaf(BiConsumer)}
+     *
+     * @param consumer Consumer accepting the key (Format: key.subkey) & the value.
+     */
+    public final void forEachLeaf(final BiConsumer<String, Object> consumer) {
+        reloadIfNeeded();
+        this.fileData.forEachLeaf(consumer);
+    }
+
+    /**
+     * @return Lazy stream of all keys & values of the file, see {@link FileData#stream()}
+     */
+    public final Stream<Map.Entry<String, Object>> stream() {
         reloadIfNeeded();
-        this.fileData.remove(key);
-        write();
+        return this.fileData.stream();
+    }
+
+    @Override
+    public final void remove(final String key) {
+        final Reload reload;
+        final Object oldValue;
+        final long version;
+        synchronized (this) {
+            reload = reloadIfNeededQuietly();
+            oldValue = valueForListeners(key);
+            this.fileData.remove(key);
+            version = ++this.dataVersion;
+        }
+        flush(version);
+        fireReload(reload);
+        fireChange(key, oldValue, null);
     }
 
     // ----------------------------------------------------------------------------------------------------
@@ -191,15 +406,16 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
      * @param map Map to insert.
      */
     public final void putAll(final Map<String, Object> map) {
-        this.fileData.putAll(map);
-        write();
+        change(() -> this.fileData.putAll(map));
     }
 
     /**
-     * @return The data of our file as a Map<String, Object>
+     * @return A mutable copy of the data of our file as a Map<String, Object>. Changes of the copy
+     * aren't applied to the file, use {@link #putAll(Map)} or {@link #set(String, Object)} for
+     * that. {@code getFileData().toMap()} returns a read-only view without copying.
      */
     public final Map<String, Object> getData() {
-        return getFileData().toMap();
+        return getFileData().toMutableMap();
     }
 
     // For performance separated from get(String key)
@@ -215,10 +431,11 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
     }
 
     public void removeAll(final String... keys) {
-        for (final String key : keys) {
-            this.fileData.remove(key);
-        }
-        write();
+        change(() -> {
+            for (final String key : keys) {
+                this.fileData.remove(key);
+            }
+        });
     }
 
     // ----------------------------------------------------------------------------------------------------
@@ -230,14 +447,15 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
     }
 
     public final void addDefaultsFromFileData(@NonNull final FileData newData) {
-        reloadIfNeeded();
+        change(() -> {
+            // Changes found while reloading are passed to our listeners together with the defaults
+            reloadIfNeededQuietly();
 
-        // Creating & setting defaults
-        for (final Map.Entry<String, Object> entry : newData.entrySet())
-            if (!this.fileData.containsKey(entry.getKey()))
-                this.fileData.insert(entry.getKey(), entry.getValue());
-
-        write();
+            // Creating & setting defaults
+            for (final Map.Entry<String, Object> entry : newData.entrySet())
+                if (!this.fileData.containsKey(entry.getKey()))
+                    this.fileData.insert(entry.getKey(), entry.getValue());
+        });
     }
 
     public final void addDefaultsFromFlatFile(@NonNull final FlatFile flatFile) {
@@ -252,26 +470,36 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
         return this.file.getAbsolutePath();
     }
 
-    public synchronized void replace(
+    public void replace(
             final CharSequence target,
             final CharSequence replacement) throws IOException {
-        final List<String> lines = Files.readAllLines(this.file.toPath());
-        final List<String> result = new ArrayList<>();
-        for (final String line : lines) {
-            result.add(line.replace(target, replacement));
+        synchronized (this.writeLock) {
+            final List<String> result = new ArrayList<>();
+            try (final BufferedReader reader = createReader(StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    result.add(line.replace(target, replacement));
+                }
+            }
+            try (final Writer writer = createWriter(StandardCharsets.UTF_8)) {
+                for (final String line : result) {
+                    writer.write(line);
+                    writer.write(System.lineSeparator());
+                }
+            }
         }
-        Files.write(this.file.toPath(), result);
     }
 
+    /**
+     * Writes our data to the file. The data is written from a snapshot, so other threads can keep
+     * changing this file meanwhile.
+     */
     public void write() {
-        try {
-            write(this.fileData);
-        } catch (final IOException ex) {
-            System.err.println("Exception writing to file '" + getName() + "'");
-            System.err.println("In '" + FileUtils.getParentDirPath(this.file) + "'");
-            ex.printStackTrace();
+        final long version;
+        synchronized (this) {
+            version = ++this.dataVersion;
         }
-        this.lastLoaded = System.currentTimeMillis();
+        flush(version);
     }
 
     public final boolean hasChanged() {
@@ -279,48 +507,398 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
     }
 
     public final void forceReload() {
+        fireReload(reload(false));
+    }
+
+    /**
+     * Re-reads the file like {@link #forceReload()} & finds the keys which changed, so values derived
+     * from the data only need to be recomputed for the changed keys.
+     *
+     * @return Difference between the data before & after reloading.
+     */
+    public final FileDataDiff forceReloadAndDiff() {
+        final Reload reload = reload(true);
+        fireReload(reload);
+        return reload.diff;
+    }
+
+    // Doesn't notify our listeners, callers do so once they released our monitor
+    private Reload reload(final boolean diff) {
+        final MetricsProvider metrics = LightningProviders.metricsProvider();
+        final boolean measure = metrics.isEnabled();
+        final long start = measure ? System.nanoTime() : 0L;
+        long parsed = start;
+        final StorageEvent event = StorageEvents.beginReload();
+
         Map<String, Object> out = new HashMap<>();
+        FileDataDiff result = null;
+        Map<String, Object> before = null;
+        Map<String, Object> after = null;
+        Long fingerprint = null;
+        long fingerprintLength = 0L;
         try {
             out = readToMap();
+            if (measure) {
+                parsed = System.nanoTime();
+            }
+            fingerprint = readFingerprint();
+            fingerprintLength = this.file.length();
         } catch (final IOException ex) {
             handleReloadException(ex);
         } finally {
+            // Loading replaces the whole data, the old data stays untouched
             if (this.fileData == null) {
                 this.fileData = new FileData(out, this.dataType);
+                if (diff) {
+                    result = FileDataDiff.between(Collections.emptyMap(), this.fileData.toMap());
+                }
             } else {
-                this.fileData.loadData(out);
+                before = this.subscriptions.isEmpty() ? null : this.fileData.toMap();
+                if (diff) {
+                    result = this.fileData.loadDataAndDiff(out);
+                } else {
+                    this.fileData.loadData(out);
+                }
             }
             this.lastLoaded = System.currentTimeMillis();
+            this.fingerprint = fingerprint;
+            this.fingerprintLength = fingerprintLength;
+            afterReload();
+            event.finish(this);
+
+            if (measure) {
+                metrics.onReload(this, System.nanoTime() - start, parsed - start, this.file.length());
+            }
+            // Taken as snapshot since our data might change until the listeners are notified
+            after = before == null ? null : this.fileData.snapshot().toMap();
         }
+        return new Reload(result, before, after);
+    }
+
+    // Result of reloading our file, see fireReload(Reload)
+    @RequiredArgsConstructor
+    private static final class Reload {
+
+        @Nullable
+        private final FileDataDiff diff;
+        @Nullable
+        private final Map<String, Object> before;
+        @Nullable
+        private final Map<String, Object> after;
     }
 
     public final void clear() {
-        this.fileData.clear();
-        write();
+        change(this.fileData::clear);
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Listening for changes
+    // ----------------------------------------------------------------------------------------------------
+
+    /**
+     * Registers a listener which is called synchronously after a key or a key in the layer of it
+     * changed. Changes made using this FlatFile are passed as well as changes found while reloading
+     * the file. Listeners are never called while this FlatFile is locked, so they may wait for
+     * other threads using it.
+     *
+     * @param keyOrPrefix Key to listen to (Format: key.subkey)
+     * @param listener    Listener to call
+     * @return Subscription to unsubscribe the listener.
+     */
+    public final Subscription subscribe(
+            @NonNull final String keyOrPrefix,
+            @NonNull final ChangeListener listener) {
+        return this.subscriptions.subscribe(keyOrPrefix, listener, null);
+    }
+
+    /**
+     * Registers a listener which is called using the given executor after a key or a key in the
+     * layer of it changed, see {@link #subscribe(String, ChangeListener)}.
+     */
+    public final Subscription subscribe(
+            @NonNull final String keyOrPrefix,
+            @NonNull final ChangeListener listener,
+            @NonNull final Executor executor) {
+        return this.subscriptions.subscribe(keyOrPrefix, listener, executor);
+    }
+
+    /**
+     * Takes a snapshot of the current data in O(1), see {@link FileData#snapshot()}. Useful to
+     * iterate consistent data on other threads while this file is changed.
+     *
+     * @return Read-only FileData which isn't affected by later changes.
+     */
+    public final FileData snapshot() {
+        final Reload reload;
+        final FileData snapshot;
+        synchronized (this) {
+            reload = reloadIfNeededQuietly();
+            snapshot = getFileData().snapshot();
+        }
+        fireReload(reload);
+        return snapshot;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Asynchronous operations
+    // ----------------------------------------------------------------------------------------------------
+
+    /*
+     * Asynchronous operations are run on the executor of LightningProviders#asyncExecutor.
+     * Operations of the same file run one after another in the order they were requested and
+     * complete with a snapshot of the data taken right after the operation.
+     */
+
+    /**
+     * Re-reads our file asynchronously. If changes of our data weren't written yet, the file is
+     * older than our data and isn't read, so these changes aren't lost.
+     */
+    public final CompletableFuture<FileData> loadAsync() {
+        return runAsync(() -> {
+            Reload reload = null;
+            final FileData snapshot;
+            // Same lock order as flush(long): The file isn't read while it's being written
+            synchronized (this.writeLock) {
+                synchronized (this) {
+                    if (this.dataVersion == this.writtenVersion) {
+                        reload = reload(false);
+                    }
+                    snapshot = this.fileData.snapshot();
+                }
+            }
+            fireReload(reload);
+            return snapshot;
+        });
+    }
+
+    /**
+     * Writes our data to the file asynchronously.
+     */
+    public final CompletableFuture<FileData> saveAsync() {
+        return runAsync(() -> {
+            final FileData snapshot;
+            final long version;
+            synchronized (this) {
+                snapshot = this.fileData.snapshot();
+                version = ++this.dataVersion;
+            }
+            flush(version);
+            return snapshot;
+        });
+    }
+
+    /**
+     * Sets a value & writes the file asynchronously, see {@link #set(String, Object)}.
+     */
+    public final CompletableFuture<FileData> setAsync(final String key, final Object value) {
+        return runAsync(() -> set0(key, value, true));
+    }
+
+    private <T> CompletableFuture<T> runAsync(final Supplier<T> operation) {
+        synchronized (this.asyncLock) {
+            final CompletableFuture<T> next = this.lastAsyncOperation
+                    // A failed operation mustn't stop the following ones
+                    .handle((result, throwable) -> null)
+                    .thenApplyAsync(ignored -> operation.get(), LightningProviders.asyncExecutor());
+            this.lastAsyncOperation = next;
+            return next;
+        }
     }
 
     // ----------------------------------------------------------------------------------------------------
     // Internal stuff
     // ----------------------------------------------------------------------------------------------------
 
-    protected final void reloadIfNeeded() {
-        if (shouldReload()) {
-            forceReload();
+    // Snapshot is taken right after the change if requested
+    @Nullable
+    private FileData set0(final String key, final Object value, final boolean snapshot) {
+        final String finalKey = (this.pathPrefix == null) ? key : this.pathPrefix + "." + key;
+        final Reload reload;
+        final Object oldValue;
+        final Object newValue;
+        final FileData result;
+        final long version;
+        synchronized (this) {
+            reload = reloadIfNeededQuietly();
+            oldValue = valueForListeners(finalKey);
+            this.fileData.insert(finalKey, value);
+            newValue = valueForListeners(finalKey);
+            result = snapshot ? this.fileData.snapshot() : null;
+            version = ++this.dataVersion;
+        }
+        flush(version);
+        fireReload(reload);
+        fireChange(finalKey, oldValue, newValue);
+        return result;
+    }
+
+    // Changes our data under our monitor, writes it outside of it & notifies listeners afterwards
+    private void change(final Runnable change) {
+        final Map<String, Object> before;
+        final Map<String, Object> after;
+        final long version;
+        synchronized (this) {
+            before = dataForListeners();
+            change.run();
+            after = dataForListeners();
+            version = ++this.dataVersion;
+        }
+        flush(version);
+        fireChanges(before, after);
+    }
+
+    /**
+     * Writes a snapshot of our data unless a version at least as new as the given one was already
+     * written. If several threads are waiting to write, the first one writes the newest data for
+     * all of them. Must not be called while holding our monitor.
+     */
+    private void flush(final long version) {
+        synchronized (this.writeLock) {
+            if (this.writtenVersion >= version) {
+                return;
+            }
+
+            // Borrowed snapshots don't make the next change copy the layers on its path
+            final boolean borrow = !keepsWrittenData();
+            final FileData data;
+            final FileData snapshot;
+            final long newest;
+            synchronized (this) {
+                data = this.fileData;
+                snapshot = borrow ? data.borrowSnapshot() : data.snapshot();
+                newest = this.dataVersion;
+            }
+
+            final MetricsProvider metrics = LightningProviders.metricsProvider();
+            final long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+            final StorageEvent event = StorageEvents.beginWrite();
+            Long fingerprint = null;
+            long fingerprintLength = 0L;
+            try {
+                write(snapshot);
+                fingerprint = readFingerprint();
+                fingerprintLength = this.file.length();
+            } catch (final IOException ex) {
+                System.err.println("Exception writing to file '" + getName() + "'");
+                System.err.println("In '" + FileUtils.getParentDirPath(this.file) + "'");
+                ex.printStackTrace();
+            } finally {
+                if (borrow) {
+                    data.release(snapshot);
+                }
+                // Even if the writer threw, otherwise we'd never reload again
+                this.lastLoaded = System.currentTimeMillis();
+                this.fingerprint = fingerprint;
+                this.fingerprintLength = fingerprintLength;
+                this.writtenVersion = newest;
+            }
+            event.finish(this);
+
+            if (metrics.isEnabled()) {
+                metrics.onWrite(this, System.nanoTime() - start, this.file.length());
+            }
+        }
+    }
+
+    @Nullable
+    private Object valueForListeners(final String key) {
+        return this.subscriptions.isEmpty() ? null : this.fileData.get(key);
+    }
+
+    // Only taken if someone is listening
+    @Nullable
+    private Map<String, Object> dataForListeners() {
+        return this.subscriptions.isEmpty() ? null : this.fileData.snapshot().toMap();
+    }
+
+    private void fireChange(
+            final String key,
+            @Nullable final Object oldValue,
+            @Nullable final Object newValue) {
+        if (!this.subscriptions.isEmpty()) {
+            this.subscriptions.fireChange(key, oldValue, newValue);
+        }
+    }
+
+    private void fireChanges(
+            @Nullable final Map<String, Object> before,
+            @Nullable final Map<String, Object> after) {
+        if (before != null && after != null) {
+            this.subscriptions.fireReload(before, after);
         }
     }
 
+    // Must not be called while holding our monitor
+    private void fireReload(@Nullable final Reload reload) {
+        if (reload != null) {
+            fireChanges(reload.before, reload.after);
+        }
+    }
+
+    /**
+     * Reloads our data if the file changed, depending on our {@link ReloadSettings}.
+     */
+    public final void reloadIfNeeded() {
+        fireReload(reloadIfNeededQuietly());
+    }
+
+    // Doesn't notify our listeners, callers do so once they released our monitor
+    @Nullable
+    private Reload reloadIfNeededQuietly() {
+        // While our data is being written, it is newer than the file
+        if (this.dataVersion != this.writtenVersion) {
+            return null;
+        }
+        return shouldReload() ? reload(false) : null;
+    }
+
     // Should the file be re-read before the next get() operation?
     // Can be used as utility method for implementations of FlatFile
     protected boolean shouldReload() {
         if (ReloadSettings.AUTOMATICALLY.equals(this.reloadSettings)) {
             return true;
         } else if (ReloadSettings.INTELLIGENT.equals(this.reloadSettings)) {
-            return FileUtils.hasChanged(this.file, this.lastLoaded);
+            final MetricsProvider metrics = LightningProviders.metricsProvider();
+            if (!metrics.isEnabled()) {
+                return hasChangedContent();
+            }
+            final long start = System.nanoTime();
+            final boolean changed = hasChangedContent();
+            metrics.onReloadCheck(this, System.nanoTime() - start, changed);
+            return changed;
         } else {
             return false;
         }
     }
 
+    // Compressed files which were written again with the same content aren't read again. Both
+    // their fingerprint & their length must be unchanged, the fingerprint alone may collide
+    private boolean hasChangedContent() {
+        if (!FileUtils.hasChanged(this.file, this.lastLoaded)) {
+            return false;
+        }
+        final Long known = this.fingerprint;
+        if (known == null || this.file.length() != this.fingerprintLength) {
+            return true;
+        }
+        try {
+            if (!known.equals(readFingerprint())) {
+                return true;
+            }
+        } catch (final IOException ex) {
+            return true;
+        }
+        this.lastLoaded = System.currentTimeMillis();
+        return false;
+    }
+
+    @Nullable
+    private Long readFingerprint() throws IOException {
+        return this.compression == null
+                ? null
+                : this.compression.getCodec().fingerprint(this.file);
+    }
+
     // ----------------------------------------------------------------------------------------------------
     // Misc
     // ----------------------------------------------------------------------------------------------------
@@ -0,0 +1,328 @@
+package de.leonhard.storage.internal;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Index of the values of all keys matching a pattern, to look up keys by their value without
+ * walking all keys.
+ *
+ * <p>Patterns are keys of which segments may be {@code *} to match any single segment, for
+ * example {@code users.*.name}. Strings, numbers & booleans are indexed, other values like lists
+ * are skipped. Numbers are compared by their numeric value regardless of their type, so 5 equals
+ * 5L and 5.0. Strings holding a number, like all numbers read from YAML, are sorted as that
+ * number, so they're found by numeric ranges. Lookups of single values only match such strings if
+ * they're written exactly like the number: {@code get(30)} finds "30", {@code get("007")} doesn't
+ * find "7".
+ *
+ * <p>Indexes are created using {@link FlatFile#createIndex(String)} or {@link
+ * FileData#createIndex(String)} & are kept up to date on every change of the data.
+ */
+public final class ValueIndex {
+
+    private static final String WILDCARD = "*";
+
+    private final String pattern;
+    private final String[] segments;
+    // Called before lookups, so reloading files are up to date
+    private final Runnable beforeLookup;
+    private final ConcurrentSkipListMap<String, Object> valuesByKey = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Object, NavigableSet<String>> keysByValue =
+            new ConcurrentSkipListMap<>(ValueIndex::compareValues);
+
+    ValueIndex(@NonNull final String pattern, final Runnable beforeLookup) {
+        this.pattern = pattern;
+        this.segments = pattern.split("\\.");
+        this.beforeLookup = beforeLookup;
+    }
+
+    public String getPattern() {
+        return this.pattern;
+    }
+
+    /**
+     * @return Amount of indexed keys.
+     */
+    public int size() {
+        this.beforeLookup.run();
+        return this.valuesByKey.size();
+    }
+
+    /**
+     * @param value Value to look for
+     * @return Read-only sorted set of the keys having the given value (Format: key.subkey).
+     */
+    public NavigableSet<String> get(@NonNull final Object value) {
+        this.beforeLookup.run();
+        if (!isIndexable(value)) {
+            return Collections.emptyNavigableSet();
+        }
+        final NavigableSet<String> keys = this.keysByValue.get(normalize(value));
+        if (keys == null) {
+            return Collections.emptyNavigableSet();
+        }
+        // Values sorted as the same number may still be written differently
+        NavigableSet<String> exact = null;
+        for (final String key : keys) {
+            if (!sameValue(this.valuesByKey.get(key), value)) {
+                if (exact == null) {
+                    exact = new TreeSet<>(keys.headSet(key, false));
+                }
+            } else if (exact != null) {
+                exact.add(key);
+            }
+        }
+        return Collections.unmodifiableNavigableSet(exact == null ? keys : exact);
+    }
+
+    /**
+     * @param from Lowest value, inclusive. Null for no lower bound
+     * @param to   Highest value, exclusive. Null for no upper bound
+     * @return Keys having a value in the given range, sorted by their value (Format: key.subkey).
+     */
+    public List<String> range(@Nullable final Object from, @Nullable final Object to) {
+        this.beforeLookup.run();
+        NavigableMap<Object, NavigableSet<String>> range = this.keysByValue;
+        final Object lowest = from == null ? null : normalize(from);
+        final Object highest = to == null ? null : normalize(to);
+        if (lowest != null && highest != null && compareValues(lowest, highest) >= 0) {
+            return Collections.emptyList();
+        }
+        if (lowest != null) {
+            range = range.tailMap(lowest, true);
+        }
+        if (highest != null) {
+            range = range.headMap(highest, false);
+        }
+        final List<String> keys = new ArrayList<>();
+        for (final NavigableSet<String> keysOfValue : range.values()) {
+            keys.addAll(keysOfValue);
+        }
+        return keys;
+    }
+
+    /**
+     * @param key Key to get the value of (Format: key.subkey)
+     * @return Indexed value of the key or null if it isn't indexed.
+     */
+    @Nullable
+    public Object getValue(final String key) {
+        this.beforeLookup.run();
+        return this.valuesByKey.get(key);
+    }
+
+    @Override
+    public String toString() {
+        return "ValueIndex{pattern='" + this.pattern + "', size=" + this.valuesByKey.size() + "}";
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Maintained by FileData
+    // ----------------------------------------------------------------------------------------------------
+
+    void rebuild(final Map<String, Object> root) {
+        this.valuesByKey.clear();
+        this.keysByValue.clear();
+        addMatches(root, 0, null);
+    }
+
+    /**
+     * Updates the keys affected by a change of the given key.
+     *
+     * @param root Root layer of the data after the change
+     * @param key  Key of the changed value or layer
+     */
+    void update(final Map<String, Object> root, final String key) {
+        final String[] parts = key.split("\\.");
+        final int common = Math.min(parts.length, this.segments.length);
+        for (int i = 0; i < common; i++) {
+            if (!WILDCARD.equals(this.segments[i]) && !this.segments[i].equals(parts[i])) {
+                return;
+            }
+        }
+
+        if (parts.length >= this.segments.length) {
+            // Only the key matching the pattern which contains the changed key is affected
+            final String matching = parts.length == this.segments.length
+                    ? key
+                    : String.join(".", Arrays.copyOf(parts, this.segments.length));
+            remove(matching);
+            final Object value = valueAt(root, matching);
+            if (isIndexable(value)) {
+                add(matching, value);
+            }
+            return;
+        }
+
+        // Keys below the changed layer are affected. They all sort between "key." & "key/"
+        for (final String indexed : this.valuesByKey.subMap(key + ".", key + "/").keySet()) {
+            remove(indexed);
+        }
+        final Object layer = valueAt(root, key);
+        if (layer != null) {
+            addMatches(layer, parts.length, key);
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Internal stuff
+    // ----------------------------------------------------------------------------------------------------
+
+    // Adds the values matching the segments of our pattern starting at the given index
+    @SuppressWarnings("unchecked")
+    private void addMatches(final Object value, final int index, final String key) {
+        if (index == this.segments.length) {
+            if (isIndexable(value)) {
+                add(key, value);
+            }
+            return;
+        }
+        if (!(value instanceof Map)) {
+            return;
+        }
+
+        final Map<String, Object> layer = (Map<String, Object>) value;
+        final String segment = this.segments[index];
+        if (!WILDCARD.equals(segment)) {
+            final Object child = layer.get(segment);
+            if (child != null) {
+                addMatches(child, index + 1, key == null ? segment : key + "." + segment);
+            }
+            return;
+        }
+        for (final Map.Entry<String, Object> entry : layer.entrySet()) {
+            final String childKey = key == null ? entry.getKey() : key + "." + entry.getKey();
+            addMatches(entry.getValue(), index + 1, childKey);
+        }
+    }
+
+    private void add(final String key, final Object value) {
+        this.valuesByKey.put(key, value);
+        this.keysByValue
+                .computeIfAbsent(normalize(value), ignored -> new ConcurrentSkipListSet<>())
+                .add(key);
+    }
+
+    private void remove(final String key) {
+        final Object old = this.valuesByKey.remove(key);
+        if (old == null) {
+            return;
+        }
+        final Object normalized = normalize(old);
+        final NavigableSet<String> keys = this.keysByValue.get(normalized);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                this.keysByValue.remove(normalized, keys);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private static Object valueAt(final Map<String, Object> root, final String key) {
+        Object current = root;
+        for (final String part : key.split("\\.")) {
+            if (!(current instanceof Map)) {
+                return null;
+            }
+            current = ((Map<String, Object>) current).get(part);
+        }
+        return current;
+    }
+
+    private static boolean isIndexable(final Object value) {
+        return value instanceof String || value instanceof Number || value instanceof Boolean;
+    }
+
+    // Numeric strings are ordered as the number they hold, like the typed predicates of queries
+    private static Object normalize(final Object value) {
+        if (value instanceof String) {
+            final Number number = FileDataQuery.parseNumber((String) value);
+            if (number != null) {
+                return number;
+            }
+        }
+        return value;
+    }
+
+    // Strings only equal numbers written exactly like them, numbers are compared by their value
+    private static boolean sameValue(@Nullable final Object indexed, final Object value) {
+        if (indexed == null) {
+            return false;
+        } else if (indexed instanceof String && value instanceof String) {
+            return indexed.equals(value);
+        } else if (indexed instanceof String || value instanceof String) {
+            return indexed.toString().equals(value.toString());
+        }
+        return compareValues(indexed, value) == 0;
+    }
+
+    // Numbers < strings < booleans. Numbers are compared by their exact value
+    static int compareValues(final Object first, final Object second) {
+        final int rank = Integer.compare(rankOf(first), rankOf(second));
+        if (rank != 0) {
+            return rank;
+        }
+        if (first instanceof String) {
+            return ((String) first).compareTo((String) second);
+        } else if (first instanceof Boolean) {
+            return ((Boolean) first).compareTo((Boolean) second);
+        }
+        return compareNumbers((Number) first, (Number) second);
+    }
+
+    private static int rankOf(final Object value) {
+        if (value instanceof Number) {
+            return 0;
+        } else if (value instanceof String) {
+            return 1;
+        } else if (value instanceof Boolean) {
+            return 2;
+        }
+        throw new IllegalArgumentException("Can't index values of " + value.getClass().getName());
+    }
+
+    private static int compareNumbers(final Number first, final Number second) {
+        if (isIntegral(first) && isIntegral(second)) {
+            return Long.compare(first.longValue(), second.longValue());
+        }
+        final boolean firstFloating = first instanceof Double || first instanceof Float;
+        final boolean secondFloating = second instanceof Double || second instanceof Float;
+        if (firstFloating && secondFloating
+                || !isFinite(first)
+                || !isFinite(second)) {
+            return Double.compare(first.doubleValue(), second.doubleValue());
+        }
+        return toBigDecimal(first).compareTo(toBigDecimal(second));
+    }
+
+    private static boolean isIntegral(final Number number) {
+        return number instanceof Integer
+                || number instanceof Long
+                || number instanceof Short
+                || number instanceof Byte;
+    }
+
+    private static boolean isFinite(final Number number) {
+        return !(number instanceof Double || number instanceof Float)
+                || !Double.isNaN(number.doubleValue()) && !Double.isInfinite(number.doubleValue());
+    }
+
+    private static BigDecimal toBigDecimal(final Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        } else if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        } else if (isIntegral(number)) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        return new BigDecimal(number.doubleValue());
+    }
+}
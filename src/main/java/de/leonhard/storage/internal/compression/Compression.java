@@ -0,0 +1,81 @@
+package de.leonhard.storage.internal.compression;
+
+import de.leonhard.storage.util.Valid;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.zip.Deflater;
+
+/**
+ * How a FlatFile is compressed: The codec, its level & the size of its buffers.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class Compression {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    CompressionCodec codec;
+    int level;
+    int bufferSize;
+
+    public static Compression gzip() {
+        return of(CompressionCodecs.GZIP);
+    }
+
+    public static Compression deflate() {
+        return of(CompressionCodecs.DEFLATE);
+    }
+
+    public static Compression of(@NonNull final CompressionCodec codec) {
+        return new Compression(codec, Deflater.DEFAULT_COMPRESSION, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param level From 0 (fastest) to 9 (smallest), -1 for the default of the codec
+     */
+    public Compression withLevel(final int level) {
+        Valid.checkBoolean(level >= -1 && level <= 9, "Compression level must be from -1 to 9");
+        return new Compression(this.codec, level, this.bufferSize);
+    }
+
+    public Compression withBufferSize(final int bufferSize) {
+        Valid.checkBoolean(bufferSize > 0, "Buffer size must be positive");
+        return new Compression(this.codec, this.level, bufferSize);
+    }
+
+    /**
+     * @return Name of the compressed file of the given one, like "data.json.gz".
+     */
+    public String fileName(@NonNull final String fileName) {
+        return fileName + "." + this.codec.getExtension();
+    }
+
+    public InputStream createInputStream(@NonNull final File file) throws IOException {
+        // Files we just created are still empty
+        if (file.length() == 0) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        final InputStream inputStream = Files.newInputStream(file.toPath());
+        try {
+            return this.codec.decompress(inputStream, this.bufferSize);
+        } catch (final IOException ex) {
+            inputStream.close();
+            throw ex;
+        }
+    }
+
+    public OutputStream createOutputStream(@NonNull final File file) throws IOException {
+        final OutputStream outputStream = Files.newOutputStream(file.toPath());
+        try {
+            return this.codec.compress(outputStream, this.level, this.bufferSize);
+        } catch (final IOException ex) {
+            outputStream.close();
+            throw ex;
+        }
+    }
+}
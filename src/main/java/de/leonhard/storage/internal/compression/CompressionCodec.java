@@ -0,0 +1,61 @@
+package de.leonhard.storage.internal.compression;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compresses the content of our files while it is written & decompresses it while it is read.
+ *
+ * <p>Codecs are looked up by the extension following the extension of the file type, like "gz"
+ * in "data.json.gz". Besides the codecs of {@link CompressionCodecs}, implementations can be
+ * registered there or provided as services of this class, see {@link java.util.ServiceLoader}.
+ */
+public abstract class CompressionCodec {
+
+    public abstract String getName();
+
+    /**
+     * @return Extension of compressed files, without the dot.
+     */
+    public abstract String getExtension();
+
+    /**
+     * @param level      Compression level of the codec, -1 for its default
+     * @param bufferSize Size of the buffer of compressed data
+     */
+    public abstract OutputStream compress(
+            OutputStream outputStream,
+            int level,
+            int bufferSize) throws IOException;
+
+    /**
+     * @param bufferSize Size of the buffer of compressed data
+     */
+    public abstract InputStream decompress(
+            InputStream inputStream,
+            int bufferSize) throws IOException;
+
+    /**
+     * Identifies the content of a compressed file without decompressing it, used to skip reloading
+     * files which were written again with the same content.
+     *
+     * <p>The same content always has the same fingerprint, but different content may have it too,
+     * for example a checksum collision of an edit keeping the size. Fingerprints are only a hint
+     * & are compared together with the length of the file.
+     *
+     * @return Value which is equal for equal content, null if the codec can't tell.
+     */
+    @Nullable
+    public Long fingerprint(final File file) throws IOException {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,73 @@
+package de.leonhard.storage.internal.compression;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Known {@link CompressionCodec}s by their extension. Contains the codecs of java.util.zip & the
+ * ones provided as services.
+ */
+@UtilityClass
+public class CompressionCodecs {
+
+    public final CompressionCodec GZIP = new GzipCodec();
+    public final CompressionCodec DEFLATE = new DeflateCodec();
+
+    private final Map<String, CompressionCodec> CODECS = new ConcurrentHashMap<>();
+
+    static {
+        register(GZIP);
+        register(DEFLATE);
+        for (final CompressionCodec codec : ServiceLoader.load(
+                CompressionCodec.class,
+                CompressionCodec.class.getClassLoader())) {
+            register(codec);
+        }
+    }
+
+    /**
+     * Registers a codec, replacing the one with the same extension.
+     */
+    public void register(@NonNull final CompressionCodec codec) {
+        CODECS.put(codec.getExtension().toLowerCase(), codec);
+    }
+
+    @Nullable
+    public CompressionCodec forExtension(@NonNull final String extension) {
+        return CODECS.get(extension.toLowerCase());
+    }
+
+    /**
+     * @return Codec of a file named like "data.json.gz", null if it isn't compressed.
+     */
+    @Nullable
+    public CompressionCodec forFileName(@NonNull final String fileName) {
+        final int dot = fileName.lastIndexOf('.');
+        // The name needs another extension in front of the one of the codec
+        if (dot <= 0 || fileName.lastIndexOf('.', dot - 1) <= 0) {
+            return null;
+        }
+        return forExtension(fileName.substring(dot + 1));
+    }
+
+    @Nullable
+    public CompressionCodec forFile(@NonNull final File file) {
+        return forFileName(file.getName());
+    }
+
+    /**
+     * @return Name of the file without the extension of its codec, like "data.json".
+     */
+    public String stripExtension(@NonNull final String fileName) {
+        final CompressionCodec codec = forFileName(fileName);
+        return codec == null
+                ? fileName
+                : fileName.substring(0, fileName.length() - codec.getExtension().length() - 1);
+    }
+}
@@ -0,0 +1,58 @@
+package de.leonhard.storage.internal.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * ZLIB-wrapped deflate of java.util.zip, files end with ".deflate". Has less overhead than GZIP
+ * but can't identify the content without decompressing it.
+ */
+final class DeflateCodec extends CompressionCodec {
+
+    @Override
+    public String getName() {
+        return "DEFLATE";
+    }
+
+    @Override
+    public String getExtension() {
+        return "deflate";
+    }
+
+    @Override
+    public OutputStream compress(
+            final OutputStream outputStream,
+            final int level,
+            final int bufferSize) {
+        return new DeflaterOutputStream(outputStream, new Deflater(level), bufferSize) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    // Deflaters we create aren't released by the stream
+                    this.def.end();
+                }
+            }
+        };
+    }
+
+    @Override
+    public InputStream decompress(final InputStream inputStream, final int bufferSize) {
+        return new InflaterInputStream(inputStream, new Inflater(), bufferSize) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    this.inf.end();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package de.leonhard.storage.internal.compression;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GZIP of java.util.zip, files end with ".gz".
+ */
+final class GzipCodec extends CompressionCodec {
+
+    // Header & trailer of a member without content
+    private static final int MIN_LENGTH = 18;
+
+    @Override
+    public String getName() {
+        return "GZIP";
+    }
+
+    @Override
+    public String getExtension() {
+        return "gz";
+    }
+
+    @Override
+    public OutputStream compress(
+            final OutputStream outputStream,
+            final int level,
+            final int bufferSize) throws IOException {
+        return new GZIPOutputStream(outputStream, bufferSize) {
+            {
+                this.def.setLevel(level);
+            }
+        };
+    }
+
+    @Override
+    public InputStream decompress(
+            final InputStream inputStream,
+            final int bufferSize) throws IOException {
+        return new GZIPInputStream(inputStream, bufferSize);
+    }
+
+    /**
+     * Files end with the CRC32 & the size of their content modulo 2^32.
+     */
+    @Nullable
+    @Override
+    public Long fingerprint(final File file) throws IOException {
+        try (final RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            final long length = in.length();
+            if (length < MIN_LENGTH) {
+                return null;
+            }
+            final byte[] trailer = new byte[8];
+            in.seek(length - trailer.length);
+            in.readFully(trailer);
+            long fingerprint = 0;
+            for (int i = trailer.length - 1; i >= 0; i--) {
+                fingerprint = (fingerprint << 8) | (trailer[i] & 0xFF);
+            }
+            return fingerprint;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package de.leonhard.storage.internal.editor.stream;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Receives the structure of a file as a stream of events, so it can be written without holding
+ * the whole data in memory.
+ *
+ * <p>Every document is a single map. Inside of maps each value is preceded by its {@link
+ * #key(String)}, values of lists follow each other directly. Values are either scalars passed to
+ * {@link #value(Object)} or nested maps & lists.
+ */
+public interface DataSink {
+
+    void beginMap() throws IOException;
+
+    void key(String key) throws IOException;
+
+    void endMap() throws IOException;
+
+    void beginList() throws IOException;
+
+    void endList() throws IOException;
+
+    void value(@Nullable Object value) throws IOException;
+}
@@ -0,0 +1,15 @@
+package de.leonhard.storage.internal.editor.stream;
+
+import java.io.IOException;
+
+/**
+ * Reads a file & passes its structure to a {@link DataSink} while reading it.
+ */
+@FunctionalInterface
+public interface DataSource {
+
+    /**
+     * Passes the whole document to the sink. Can only be called once for sources reading a stream.
+     */
+    void pipe(DataSink sink) throws IOException;
+}
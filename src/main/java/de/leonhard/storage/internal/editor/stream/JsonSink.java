@@ -0,0 +1,115 @@
+package de.leonhard.storage.internal.editor.stream;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Writes JSON while receiving it, indented by 3 spaces like our {@link
+ * de.leonhard.storage.Json} files.
+ */
+public final class JsonSink implements DataSink {
+
+    private static final int INDENT = 3;
+
+    private final Writer writer;
+    // Whether the container at each depth already has elements
+    private boolean[] hasElements = new boolean[16];
+    private int depth;
+    private boolean afterKey;
+
+    public JsonSink(@NonNull final Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes the document of the source as JSON.
+     */
+    public static void write(final DataSource source, final Writer writer) throws IOException {
+        source.pipe(new JsonSink(writer));
+        writer.flush();
+    }
+
+    @Override
+    public void beginMap() throws IOException {
+        open('{');
+    }
+
+    @Override
+    public void key(final String key) throws IOException {
+        separate();
+        JSONObject.quote(key, this.writer);
+        this.writer.write(": ");
+        this.afterKey = true;
+    }
+
+    @Override
+    public void endMap() throws IOException {
+        close('}');
+    }
+
+    @Override
+    public void beginList() throws IOException {
+        open('[');
+    }
+
+    @Override
+    public void endList() throws IOException {
+        close(']');
+    }
+
+    @Override
+    public void value(@Nullable final Object value) throws IOException {
+        separate();
+        this.writer.write(JSONObject.valueToString(value));
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Internal stuff
+    // ----------------------------------------------------------------------------------------------------
+
+    private void open(final char bracket) throws IOException {
+        separate();
+        this.writer.write(bracket);
+        if (++this.depth == this.hasElements.length) {
+            this.hasElements = Arrays.copyOf(this.hasElements, this.depth * 2);
+        }
+        this.hasElements[this.depth] = false;
+    }
+
+    private void close(final char bracket) throws IOException {
+        if (this.hasElements[this.depth]) {
+            this.writer.write('\n');
+            indent(this.depth - 1);
+        }
+        this.depth--;
+        this.writer.write(bracket);
+    }
+
+    // Starts a new element of the current container, values of keys follow them directly
+    private void separate() throws IOException {
+        if (this.afterKey) {
+            this.afterKey = false;
+            return;
+        }
+        if (this.depth == 0) {
+            return;
+        }
+        if (this.hasElements[this.depth]) {
+            this.writer.write(',');
+        }
+        this.writer.write('\n');
+        indent(this.depth);
+        this.hasElements[this.depth] = true;
+    }
+
+    private void indent(final int depth) throws IOException {
+        for (int i = 0; i < depth * INDENT; i++) {
+            this.writer.write(' ');
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package de.leonhard.storage.internal.editor.stream;
+
+import lombok.NonNull;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads a JSON document token by token, accepting the same syntax as {@link JSONObject}. Only the
+ * current token & the path to it are held in memory.
+ */
+public final class JsonSource implements DataSource {
+
+    private final JSONTokener tokener;
+
+    public JsonSource(@NonNull final Reader reader) {
+        this.tokener = new JSONTokener(reader);
+    }
+
+    @Override
+    public void pipe(final DataSink sink) throws IOException {
+        final char first = this.tokener.nextClean();
+        if (first == 0) {
+            // Empty files are empty objects
+            sink.beginMap();
+            sink.endMap();
+            return;
+        }
+        if (first != '{') {
+            throw this.tokener.syntaxError("A JSONObject text must begin with '{'");
+        }
+        pipeObject(sink);
+    }
+
+    // The opening brace was already read
+    private void pipeObject(final DataSink sink) throws IOException {
+        sink.beginMap();
+        char next = this.tokener.nextClean();
+        while (next != '}') {
+            if (next == 0) {
+                throw this.tokener.syntaxError("A JSONObject text must end with '}'");
+            }
+            if (next == '"' || next == '\'') {
+                sink.key(this.tokener.nextString(next));
+            } else {
+                this.tokener.back();
+                sink.key(this.tokener.nextValue().toString());
+            }
+            if (this.tokener.nextClean() != ':') {
+                throw this.tokener.syntaxError("Expected a ':' after a key");
+            }
+            pipeValue(sink);
+
+            next = this.tokener.nextClean();
+            if (next == ',' || next == ';') {
+                // Trailing separators are allowed
+                next = this.tokener.nextClean();
+            } else if (next != '}') {
+                throw this.tokener.syntaxError("Expected a ',' or '}'");
+            }
+        }
+        sink.endMap();
+    }
+
+    // The opening bracket was already read
+    private void pipeArray(final DataSink sink) throws IOException {
+        sink.beginList();
+        char next = this.tokener.nextClean();
+        while (next != ']') {
+            if (next == 0) {
+                throw this.tokener.syntaxError("Expected a ',' or ']'");
+            }
+            if (next == ',') {
+                // Missing values are null
+                sink.value(null);
+            } else {
+                this.tokener.back();
+                pipeValue(sink);
+                next = this.tokener.nextClean();
+                if (next != ',' && next != ']') {
+                    throw this.tokener.syntaxError("Expected a ',' or ']'");
+                }
+                if (next == ']') {
+                    break;
+                }
+            }
+            next = this.tokener.nextClean();
+        }
+        sink.endList();
+    }
+
+    private void pipeValue(final DataSink sink) throws IOException {
+        final char next = this.tokener.nextClean();
+        if (next == '{') {
+            pipeObject(sink);
+        } else if (next == '[') {
+            pipeArray(sink);
+        } else {
+            this.tokener.back();
+            final Object value = this.tokener.nextValue();
+            sink.value(JSONObject.NULL.equals(value) ? null : value);
+        }
+    }
+}
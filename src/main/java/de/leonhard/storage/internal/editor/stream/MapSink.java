@@ -0,0 +1,65 @@
+package de.leonhard.storage.internal.editor.stream;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Collects the events of a {@link DataSource} into a map, for formats which can only be written
+ * from memory.
+ */
+public final class MapSink implements DataSink {
+
+    private final Deque<Object> containers = new ArrayDeque<>();
+    private final Deque<String> keys = new ArrayDeque<>();
+    private Map<String, Object> result;
+
+    /**
+     * @return The map of the document, empty if nothing was passed to this sink.
+     */
+    public Map<String, Object> getResult() {
+        return this.result == null ? new LinkedHashMap<>() : this.result;
+    }
+
+    @Override
+    public void beginMap() {
+        this.containers.push(new LinkedHashMap<String, Object>());
+    }
+
+    @Override
+    public void key(final String key) {
+        this.keys.push(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void endMap() {
+        final Map<String, Object> map = (Map<String, Object>) this.containers.pop();
+        if (this.containers.isEmpty()) {
+            this.result = map;
+        } else {
+            value(map);
+        }
+    }
+
+    @Override
+    public void beginList() {
+        this.containers.push(new ArrayList<>());
+    }
+
+    @Override
+    public void endList() {
+        value(this.containers.pop());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void value(@Nullable final Object value) {
+        final Object container = this.containers.peek();
+        if (container instanceof List) {
+            ((List<Object>) container).add(value);
+        } else {
+            ((Map<String, Object>) container).put(this.keys.pop(), value);
+        }
+    }
+}
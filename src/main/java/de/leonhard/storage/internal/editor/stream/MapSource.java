@@ -0,0 +1,51 @@
+package de.leonhard.storage.internal.editor.stream;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Passes a map that is already in memory to a {@link DataSink}, for formats which can't be read
+ * piece by piece.
+ */
+@RequiredArgsConstructor
+public final class MapSource implements DataSource {
+
+    @NonNull
+    private final Map<String, Object> data;
+
+    @Override
+    public void pipe(final DataSink sink) throws IOException {
+        pipe(this.data, sink);
+    }
+
+    private static void pipe(final Object value, final DataSink sink) throws IOException {
+        if (value instanceof Map) {
+            sink.beginMap();
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                sink.key(String.valueOf(entry.getKey()));
+                pipe(entry.getValue(), sink);
+            }
+            sink.endMap();
+        } else if (value instanceof Collection) {
+            sink.beginList();
+            for (final Object element : (Collection<?>) value) {
+                pipe(element, sink);
+            }
+            sink.endList();
+        } else if (value != null && value.getClass().isArray()) {
+            sink.beginList();
+            final int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                pipe(Array.get(value, i), sink);
+            }
+            sink.endList();
+        } else {
+            sink.value(value);
+        }
+    }
+}
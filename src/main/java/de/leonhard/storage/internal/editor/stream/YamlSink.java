@@ -0,0 +1,80 @@
+package de.leonhard.storage.internal.editor.stream;
+
+import com.esotericsoftware.yamlbeans.YamlConfig.WriteConfig;
+import com.esotericsoftware.yamlbeans.document.YamlElement;
+import com.esotericsoftware.yamlbeans.emitter.Emitter;
+import com.esotericsoftware.yamlbeans.parser.Event;
+import com.esotericsoftware.yamlbeans.parser.MappingStartEvent;
+import com.esotericsoftware.yamlbeans.parser.ScalarEvent;
+import com.esotericsoftware.yamlbeans.parser.SequenceStartEvent;
+import de.leonhard.storage.internal.editor.yaml.SimpleYamlWriter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Passes the events straight to the emitter of a {@link SimpleYamlWriter}, so the YAML looks like
+ * the one written from a map by {@link de.leonhard.storage.Yaml}.
+ */
+@RequiredArgsConstructor
+public final class YamlSink implements DataSink {
+
+    @NonNull
+    private final Emitter emitter;
+    @NonNull
+    private final WriteConfig config;
+
+    /**
+     * Writes the document of the source as YAML using our YamlConfig.
+     */
+    public static void write(final DataSource source, final Writer writer) throws IOException {
+        final SimpleYamlWriter yamlWriter = new SimpleYamlWriter(writer);
+        // Elements of yamlbeans are handed the emitter of the writer
+        yamlWriter.write(new YamlElement() {
+            @Override
+            public void emitEvent(final Emitter emitter, final WriteConfig config)
+                    throws IOException {
+                source.pipe(new YamlSink(emitter, config));
+            }
+        });
+        yamlWriter.close();
+    }
+
+    @Override
+    public void beginMap() throws IOException {
+        this.emitter.emit(new MappingStartEvent(null, null, true, this.config.isFlowStyle()));
+    }
+
+    @Override
+    public void key(final String key) throws IOException {
+        value(key);
+    }
+
+    @Override
+    public void endMap() throws IOException {
+        this.emitter.emit(Event.MAPPING_END);
+    }
+
+    @Override
+    public void beginList() throws IOException {
+        this.emitter.emit(new SequenceStartEvent(null, null, true, this.config.isFlowStyle()));
+    }
+
+    @Override
+    public void endList() throws IOException {
+        this.emitter.emit(Event.SEQUENCE_END);
+    }
+
+    @Override
+    public void value(@Nullable final Object value) throws IOException {
+        this.emitter.emit(new ScalarEvent(
+                null,
+                null,
+                new boolean[]{true, true},
+                value == null ? null : String.valueOf(value),
+                this.config.getQuote().getStyle()));
+    }
+}
@@ -0,0 +1,121 @@
+package de.leonhard.storage.internal.editor.stream;
+
+import com.esotericsoftware.yamlbeans.YamlException;
+import com.esotericsoftware.yamlbeans.parser.Event;
+import com.esotericsoftware.yamlbeans.parser.EventType;
+import com.esotericsoftware.yamlbeans.parser.Parser;
+import com.esotericsoftware.yamlbeans.parser.Parser.ParserException;
+import com.esotericsoftware.yamlbeans.parser.ScalarEvent;
+import com.esotericsoftware.yamlbeans.tokenizer.Tokenizer.TokenizerException;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads the first document of a YAML file event by event. Like {@link
+ * de.leonhard.storage.internal.editor.yaml.SimpleYamlReader}, values are read as strings & plain
+ * {@code null}s or empty values as null.
+ */
+public final class YamlSource implements DataSource {
+
+    private static final byte LIST = 0;
+    private static final byte MAP_KEY = 1;
+    private static final byte MAP_VALUE = 2;
+
+    private final Parser parser;
+
+    public YamlSource(@NonNull final Reader reader) {
+        this.parser = new Parser(reader);
+    }
+
+    @Override
+    public void pipe(final DataSink sink) throws IOException {
+        try {
+            pipe0(sink);
+        } catch (final ParserException | TokenizerException ex) {
+            throw new YamlException("Error parsing YAML.", ex);
+        }
+    }
+
+    private void pipe0(final DataSink sink) throws IOException {
+        // What the containers we are in expect next
+        byte[] states = new byte[16];
+        int depth = 0;
+
+        Event event;
+        while ((event = this.parser.getNextEvent()) != null) {
+            final EventType type = event.type;
+            if (type == EventType.MAPPING_START || type == EventType.SEQUENCE_START) {
+                final boolean map = type == EventType.MAPPING_START;
+                if (depth == 0 && !map) {
+                    throw new YamlException("The document must be a map");
+                }
+                if (depth > 0) {
+                    startValue(states, depth);
+                }
+                if (++depth == states.length) {
+                    states = Arrays.copyOf(states, depth * 2);
+                }
+                states[depth] = map ? MAP_KEY : LIST;
+                if (map) {
+                    sink.beginMap();
+                } else {
+                    sink.beginList();
+                }
+            } else if (type == EventType.MAPPING_END) {
+                depth--;
+                sink.endMap();
+                if (depth == 0) {
+                    return;
+                }
+            } else if (type == EventType.SEQUENCE_END) {
+                depth--;
+                sink.endList();
+            } else if (type == EventType.SCALAR) {
+                final ScalarEvent scalar = (ScalarEvent) event;
+                if (depth == 0) {
+                    // Documents only containing an empty value are empty too
+                    if (valueOf(scalar) != null) {
+                        throw new YamlException("The document must be a map");
+                    }
+                    continue;
+                }
+                if (states[depth] == MAP_KEY) {
+                    sink.key(scalar.value);
+                    states[depth] = MAP_VALUE;
+                } else {
+                    startValue(states, depth);
+                    sink.value(valueOf(scalar));
+                }
+            } else if (type == EventType.ALIAS) {
+                throw new YamlException("Aliases aren't supported");
+            } else if (type == EventType.STREAM_END) {
+                break;
+            }
+        }
+        // Documents without content are empty maps
+        sink.beginMap();
+        sink.endMap();
+    }
+
+    private static void startValue(final byte[] states, final int depth) throws YamlException {
+        if (states[depth] == MAP_KEY) {
+            throw new YamlException("Only scalars are supported as keys");
+        }
+        if (states[depth] == MAP_VALUE) {
+            states[depth] = MAP_KEY;
+        }
+    }
+
+    @Nullable
+    private static String valueOf(final ScalarEvent scalar) {
+        // Plain scalars only, quoted 'null's are strings
+        if (scalar.style == 0 && (scalar.value == null || "null".equals(scalar.value))) {
+            return null;
+        }
+        return scalar.value;
+    }
+}
@@ -1,6 +1,8 @@
 package de.leonhard.storage.internal.editor.toml;
 
 import de.leonhard.storage.internal.exceptions.TomlException;
+import de.leonhard.storage.internal.metrics.StorageEvent;
+import de.leonhard.storage.internal.metrics.StorageEvents;
 import de.leonhard.storage.util.FastStringWriter;
 import lombok.experimental.UtilityClass;
 
@@ -132,8 +134,11 @@ public class TomlManager {
      * @throws TomlException if a parse error occurs
      */
     public Map<String, Object> read(final String toml, final boolean strictAsciiBareKeys) {
+        final StorageEvent event = StorageEvents.beginTomlParse();
         final TomlReader tr = new TomlReader(toml, strictAsciiBareKeys);
-        return tr.read();
+        final Map<String, Object> result = tr.read();
+        event.finish(null, toml.length(), result.size());
+        return result;
     }
 
     /**
@@ -213,7 +218,6 @@ public class TomlManager {
         while ((read = reader.read(buf)) != -1) {
             sb.append(buf, 0, read);
         }
-        final TomlReader tr = new TomlReader(sb.toString(), strictAsciiBareKeys);
-        return tr.read();
+        return read(sb.toString(), strictAsciiBareKeys);
     }
 }
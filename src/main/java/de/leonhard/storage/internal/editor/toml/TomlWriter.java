@@ -1,6 +1,9 @@
 package de.leonhard.storage.internal.editor.toml;
 
 import de.leonhard.storage.internal.exceptions.TomlException;
+import de.leonhard.storage.util.DoubleArrayList;
+import de.leonhard.storage.util.IntArrayList;
+import de.leonhard.storage.util.LongArrayList;
 
 import java.io.IOException;
 import java.io.Writer;
@@ -280,6 +283,17 @@ public final class TomlWriter {
     }
 
     private void writeArray(final Collection<?> c) throws IOException {
+        // Don't box the elements of primitive arrays
+        if (c instanceof IntArrayList) {
+            writeArray((IntArrayList) c);
+            return;
+        } else if (c instanceof LongArrayList) {
+            writeArray((LongArrayList) c);
+            return;
+        } else if (c instanceof DoubleArrayList) {
+            writeArray((DoubleArrayList) c);
+            return;
+        }
         write('[');
         for (final Object element : c) {
             writeValue(element);
@@ -360,6 +374,33 @@ public final class TomlWriter {
         write(']');
     }
 
+    private void writeArray(final IntArrayList list) throws IOException {
+        write('[');
+        for (int i = 0; i < list.size(); i++) {
+            write(String.valueOf(list.getInt(i)));
+            write(", ");
+        }
+        write(']');
+    }
+
+    private void writeArray(final LongArrayList list) throws IOException {
+        write('[');
+        for (int i = 0; i < list.size(); i++) {
+            write(String.valueOf(list.getLong(i)));
+            write(", ");
+        }
+        write(']');
+    }
+
+    private void writeArray(final DoubleArrayList list) throws IOException {
+        write('[');
+        for (int i = 0; i < list.size(); i++) {
+            write(String.valueOf(list.getDouble(i)));
+            write(", ");
+        }
+        write(']');
+    }
+
     private void writeValue(final Object value) throws IOException {
         if (value instanceof String) {
             writeString((String) value);
@@ -1,21 +1,54 @@
 package de.leonhard.storage.internal.editor.yaml;
 
+import de.leonhard.storage.internal.compression.Compression;
+import de.leonhard.storage.internal.provider.LightningProviders;
 import de.leonhard.storage.util.FileUtils;
 import de.leonhard.storage.util.YamlUtils;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.File;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Reads & writes the lines of a YAML-file, for example to edit its header.
+ *
+ * <p>The lines are read once & cached until the file is written, {@link #invalidate()} is called
+ * or the file changes on disk.
+ */
 @Getter
 @RequiredArgsConstructor
 public class YamlEditor {
 
     private final File file;
+    // Null if the file isn't compressed
+    @Nullable
+    private final Compression compression;
+    @Getter(AccessLevel.NONE)
+    private volatile Lines lines;
+
+    public YamlEditor(final File file) {
+        this(file, null);
+    }
 
+    /**
+     * @return Modifiable copy of the lines of the file.
+     */
     public List<String> read() {
-        return FileUtils.readAllLines(file);
+        return new ArrayList<>(lines().lines);
+    }
+
+    /**
+     * Forgets the cached lines after the file was changed without using this editor.
+     */
+    public void invalidate() {
+        this.lines = null;
     }
 
     // ----------------------------------------------------------------------------------------------------
@@ -23,41 +56,52 @@ public class YamlEditor {
     // ----------------------------------------------------------------------------------------------------
 
     public List<String> readKeys() {
-        return YamlUtils.getKeys(read());
+        return YamlUtils.getKeys(lines().lines);
     }
 
     public List<String> readComments() {
-        return YamlUtils.getKeys(read());
+        return YamlUtils.getCommentsFromLines(lines().lines);
     }
 
     public List<String> readHeader() {
-        return YamlUtils.getHeaderFromLines(read());
+        final Lines lines = lines();
+        return new ArrayList<>(lines.lines.subList(0, lines.headerEnd));
     }
 
     public List<String> readFooter() {
-        return YamlUtils.getFooterFromLines(read());
+        final Lines lines = lines();
+        return new ArrayList<>(lines.lines.subList(lines.footerStart, lines.lines.size()));
     }
 
     public List<String> readPureComments() {
-        return YamlUtils.getPureCommentsFromLines(read());
+        final Lines lines = lines();
+        return YamlUtils.getCommentsFromLines(
+                lines.lines.subList(lines.headerEnd, lines.bodyEnd()));
     }
 
     public List<String> readWithoutHeaderAndFooter() {
-        return YamlUtils.getLinesWithoutFooterAndHeaderFromLines(read());
+        final Lines lines = lines();
+        return new ArrayList<>(lines.lines.subList(lines.headerEnd, lines.bodyEnd()));
     }
 
     // ----------------------------------------------------------------------------------------------------
     // Writing specific things from File
     // ----------------------------------------------------------------------------------------------------
     public void write(final List<String> lines) {
-        FileUtils.write(file, lines);
+        if (this.compression == null) {
+            FileUtils.write(this.file, lines);
+        } else {
+            writeCompressed(lines);
+        }
+        this.lines = null;
     }
 
     public void setHeader(final List<String> header) {
+        final Lines current = lines();
         final List<String> lines = read();
 
         // Remove old header
-        lines.removeAll(readHeader());
+        lines.subList(0, current.headerEnd).clear();
 
         // Adding new header in front
         for (int i = 0; i < header.size(); i++) {
@@ -79,4 +123,85 @@ public class YamlEditor {
         // Write to file
         write(lines);
     }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Internal stuff
+    // ----------------------------------------------------------------------------------------------------
+
+    private Lines lines() {
+        final Lines cached = this.lines;
+        if (cached != null
+                && cached.length == this.file.length()
+                && cached.lastModified == this.file.lastModified()) {
+            return cached;
+        }
+        // Reading the state of the file first, so changes while reading are noticed next time
+        final long length = this.file.length();
+        final long lastModified = this.file.lastModified();
+        final Lines read = new Lines(
+                this.compression == null ? FileUtils.readAllLines(this.file) : readCompressed(),
+                length,
+                lastModified);
+        this.lines = read;
+        return read;
+    }
+
+    private List<String> readCompressed() {
+        final List<String> result = new ArrayList<>();
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(
+                this.compression.createInputStream(this.file),
+                Charset.defaultCharset()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                result.add(line);
+            }
+        } catch (final IOException ex) {
+            throw LightningProviders.exceptionHandler().create(
+                    ex,
+                    "Error while reading '" + this.file.getName() + "'.",
+                    "In: '" + FileUtils.getParentDirPath(this.file) + "'");
+        }
+        return result;
+    }
+
+    private void writeCompressed(final List<String> lines) {
+        try (final Writer writer = new BufferedWriter(new OutputStreamWriter(
+                this.compression.createOutputStream(this.file),
+                StandardCharsets.UTF_8))) {
+            for (final String line : lines) {
+                writer.write(line);
+                writer.write(System.lineSeparator());
+            }
+        } catch (final IOException ex) {
+            throw LightningProviders.exceptionHandler().create(
+                    ex,
+                    "Error while writing to '" + this.file.getName() + "'.",
+                    "In: '" + FileUtils.getParentDirPath(this.file) + "'");
+        }
+    }
+
+    /**
+     * Read-only lines of the file with the bounds of its header & footer.
+     */
+    private static final class Lines {
+
+        private final List<String> lines;
+        private final long length;
+        private final long lastModified;
+        private final int headerEnd;
+        private final int footerStart;
+
+        private Lines(final List<String> lines, final long length, final long lastModified) {
+            this.lines = Collections.unmodifiableList(lines);
+            this.length = length;
+            this.lastModified = lastModified;
+            this.headerEnd = YamlUtils.headerEnd(lines);
+            this.footerStart = YamlUtils.footerStart(lines);
+        }
+
+        // Lines between header & footer end here. Files only containing comments have no body
+        private int bodyEnd() {
+            return Math.max(this.headerEnd, this.footerStart);
+        }
+    }
 }
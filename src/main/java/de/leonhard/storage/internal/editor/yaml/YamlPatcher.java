@@ -0,0 +1,331 @@
+package de.leonhard.storage.internal.editor.yaml;
+
+import de.leonhard.storage.internal.FileData;
+import de.leonhard.storage.internal.FileDataDiff;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Writes changed values of a YAML file by rewriting only their lines instead of the whole file.
+ *
+ * <p>Keys are mapped to the line of their value when the file is loaded, or when it's patched for
+ * the first time after being written completely. A change is only patched if the old value is
+ * found on its line exactly as {@link SimpleYamlWriter} writes it & both the old & the new value
+ * fit into a single line. Lines of the same length are overwritten in place, otherwise the rest of
+ * the file after the first changed line is rewritten.
+ *
+ * <p>Added or removed keys, values like lists & files changed by others since we last read or
+ * wrote them can't be patched, they have to be written completely. Lines are encoded in the charset
+ * the file is read & written with. Files in charsets which don't write line breaks as a single
+ * byte, like UTF-16, are never patched.
+ */
+public final class YamlPatcher {
+
+    private final File file;
+    private final Charset charset;
+    // Whether lines can be found by searching for '\n' bytes
+    private final boolean patchable;
+    // Data the file currently contains, null if unknown
+    private FileData data;
+    // Line of every single line value, null until indexed
+    private Map<String, Integer> valueLines;
+    // Byte offsets of the start & the end of every line, excluding its line break
+    private long[] lineStarts;
+    private long[] lineEnds;
+    private long length;
+    private long lastModified;
+
+    /**
+     * @param file    File to patch
+     * @param charset Charset the file is read & written with
+     */
+    public YamlPatcher(@NonNull final File file, @NonNull final Charset charset) {
+        this.file = file;
+        this.charset = charset;
+        this.patchable = "\n".getBytes(charset).length == 1;
+    }
+
+    /**
+     * Indexes the content the file was just read from, see {@link #loaded(FileData)}.
+     */
+    public synchronized void read(final byte[] content) {
+        this.data = null;
+        if (!this.patchable) {
+            return;
+        }
+        index(content);
+        this.length = content.length;
+        this.lastModified = this.file.lastModified();
+    }
+
+    /**
+     * @param data Data which was just loaded from the content passed to {@link #read(byte[])}.
+     */
+    public synchronized void loaded(final FileData data) {
+        if (this.valueLines != null) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * @param data Data the whole file was just written with
+     */
+    public synchronized void written(final FileData data) {
+        this.data = data;
+        this.valueLines = null;
+        this.lineStarts = null;
+        this.lineEnds = null;
+        this.length = this.file.length();
+        this.lastModified = this.file.lastModified();
+    }
+
+    /**
+     * Forgets everything about the file after it was changed in another way.
+     */
+    public synchronized void invalidate() {
+        this.data = null;
+        this.valueLines = null;
+        this.lineStarts = null;
+        this.lineEnds = null;
+    }
+
+    /**
+     * Writes the values which differ between the data the file contains & the given data.
+     *
+     * @param data Data to write
+     * @return Whether the file was patched. If not, it wasn't touched & must be written completely.
+     */
+    public synchronized boolean patch(final FileData data) throws IOException {
+        if (!this.patchable
+                || this.data == null
+                || this.file.length() != this.length
+                || this.file.lastModified() != this.lastModified) {
+            return false;
+        }
+
+        final FileDataDiff diff = FileDataDiff.between(this.data, data);
+        if (!diff.getAdded().isEmpty() || !diff.getRemoved().isEmpty()) {
+            return false;
+        }
+        if (diff.getChanged().isEmpty()) {
+            this.data = data;
+            return true;
+        }
+
+        if (this.valueLines == null) {
+            index(Files.readAllBytes(this.file.toPath()));
+        }
+
+        try (final RandomAccessFile out = new RandomAccessFile(this.file, "rw")) {
+            final NavigableMap<Integer, byte[]> patches = new TreeMap<>();
+            for (final String key : diff.getChanged()) {
+                final Integer line = this.valueLines.get(key);
+                final Object oldValue = this.data.get(key);
+                final Object newValue = data.get(key);
+                if (line == null || !isScalar(oldValue) || !isScalar(newValue)) {
+                    return false;
+                }
+                final String oldLine = renderLine(key, oldValue);
+                final String newLine = renderLine(key, newValue);
+                if (oldLine == null || newLine == null || !oldLine.equals(readLine(out, line))) {
+                    return false;
+                }
+                patches.put(line, newLine.getBytes(this.charset));
+            }
+            write(out, patches);
+        }
+        this.data = data;
+        this.length = this.file.length();
+        this.lastModified = this.file.lastModified();
+        return true;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Internal stuff
+    // ----------------------------------------------------------------------------------------------------
+
+    private void write(
+            final RandomAccessFile out,
+            final NavigableMap<Integer, byte[]> patches) throws IOException {
+        // Lines keeping their length are overwritten, the rest of the file after the first line
+        // changing its length is rewritten
+        Integer firstMoved = null;
+        for (final Map.Entry<Integer, byte[]> patch : patches.entrySet()) {
+            final int line = patch.getKey();
+            if (patch.getValue().length != this.lineEnds[line] - this.lineStarts[line]) {
+                firstMoved = line;
+                break;
+            }
+            out.seek(this.lineStarts[line]);
+            out.write(patch.getValue());
+        }
+        if (firstMoved == null) {
+            return;
+        }
+
+        final long tailStart = this.lineStarts[firstMoved];
+        final byte[] tail = new byte[(int) (this.length - tailStart)];
+        out.seek(tailStart);
+        out.readFully(tail);
+
+        final ByteArrayOutputStream newTail = new ByteArrayOutputStream(tail.length + 64);
+        int copied = 0;
+        for (final Map.Entry<Integer, byte[]> patch : patches.tailMap(firstMoved).entrySet()) {
+            final int line = patch.getKey();
+            final byte[] bytes = patch.getValue();
+            final int start = (int) (this.lineStarts[line] - tailStart);
+            final int end = (int) (this.lineEnds[line] - tailStart);
+            newTail.write(tail, copied, start - copied);
+            newTail.write(bytes);
+            copied = end;
+
+            // The following lines move by the difference
+            final long delta = bytes.length - (end - start);
+            this.lineEnds[line] += delta;
+            for (int i = line + 1; i < this.lineStarts.length; i++) {
+                this.lineStarts[i] += delta;
+                this.lineEnds[i] += delta;
+            }
+        }
+        newTail.write(tail, copied, tail.length - copied);
+
+        out.seek(tailStart);
+        out.write(newTail.toByteArray());
+        out.setLength(tailStart + newTail.size());
+    }
+
+    private String readLine(final RandomAccessFile in, final int line) throws IOException {
+        final byte[] bytes = new byte[(int) (this.lineEnds[line] - this.lineStarts[line])];
+        in.seek(this.lineStarts[line]);
+        in.readFully(bytes);
+        return new String(bytes, this.charset);
+    }
+
+    /**
+     * Maps the keys of values written on a single line to their line. Lines are followed by the
+     * indentation of the keys, lines of lists, multi line values & keys needing quotes are skipped.
+     */
+    private void index(final byte[] content) {
+        int lines = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '\n' || i == content.length - 1) {
+                lines++;
+            }
+        }
+        this.lineStarts = new long[lines];
+        this.lineEnds = new long[lines];
+        int line = 0;
+        int start = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '\n' || i == content.length - 1) {
+                int end = content[i] == '\n' ? i : i + 1;
+                if (end > start && content[end - 1] == '\r') {
+                    end--;
+                }
+                this.lineStarts[line] = start;
+                this.lineEnds[line++] = end;
+                start = i + 1;
+            }
+        }
+
+        this.valueLines = new HashMap<>();
+        final Deque<Integer> indents = new ArrayDeque<>();
+        final Deque<String> keys = new ArrayDeque<>();
+        int skipDeeperThan = -1;
+        for (line = 0; line < lines; line++) {
+            final String text = new String(
+                    content,
+                    (int) this.lineStarts[line],
+                    (int) (this.lineEnds[line] - this.lineStarts[line]),
+                    this.charset);
+            final String trimmed = text.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            final int indent = text.indexOf(trimmed.charAt(0));
+            if (skipDeeperThan >= 0 && indent > skipDeeperThan) {
+                continue;
+            }
+            skipDeeperThan = -1;
+            while (!indents.isEmpty() && indents.peek() >= indent) {
+                indents.pop();
+                keys.pop();
+            }
+
+            final int colon = keyEnd(trimmed);
+            if (colon <= 0 || trimmed.charAt(0) == '-') {
+                // List items, quoted keys & everything else we don't understand
+                skipDeeperThan = indent;
+                continue;
+            }
+
+            final String key = trimmed.substring(0, colon);
+            if (colon + 1 >= trimmed.length()) {
+                // Layer, the following lines are its keys
+                indents.push(indent);
+                keys.push(key);
+                continue;
+            }
+
+            final StringBuilder path = new StringBuilder();
+            final Iterator<String> parents = keys.descendingIterator();
+            while (parents.hasNext()) {
+                path.append(parents.next()).append('.');
+            }
+            this.valueLines.put(path.append(key).toString(), line);
+            // Values continued on the following lines
+            skipDeeperThan = indent;
+        }
+    }
+
+    // Index of the colon after a plain key, -1 if there is none
+    private static int keyEnd(final String trimmed) {
+        final char first = trimmed.charAt(0);
+        if (first == '\'' || first == '"' || first == '?' || first == '&' || first == '!') {
+            return -1;
+        }
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (trimmed.charAt(i) == ':'
+                    && (i + 1 == trimmed.length() || trimmed.charAt(i + 1) == ' ')) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isScalar(@Nullable final Object value) {
+        return value instanceof String || value instanceof Number || value instanceof Boolean;
+    }
+
+    /**
+     * Writes the value nested in the layers of its key, so it's indented & wrapped like when
+     * writing the whole file.
+     *
+     * @return The line of the value or null if it's written on several lines.
+     */
+    @Nullable
+    private static String renderLine(final String key, final Object value) throws IOException {
+        final String[] parts = key.split("\\.");
+        Object nested = value;
+        for (int i = parts.length - 1; i >= 0; i--) {
+            nested = Collections.singletonMap(parts[i], nested);
+        }
+
+        final StringWriter out = new StringWriter();
+        try (final SimpleYamlWriter writer = new SimpleYamlWriter(out)) {
+            writer.write(nested);
+        }
+        final String[] lines = out.toString().split("\r?\n");
+        return lines.length == parts.length ? lines[lines.length - 1] : null;
+    }
+}
@@ -0,0 +1,23 @@
+package de.leonhard.storage.internal.listener;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Listener for changes of a key or a whole layer of a {@link de.leonhard.storage.internal.FlatFile}.
+ * See {@link de.leonhard.storage.internal.FlatFile#subscribe(String, ChangeListener)}
+ */
+@FunctionalInterface
+public interface ChangeListener {
+
+    /**
+     * Called after a value changed.
+     *
+     * <p>Layers are passed as read-only maps. Values of layers which are still part of the file
+     * reflect later changes.
+     *
+     * @param key      Changed key (Format: key.subkey)
+     * @param oldValue Value before the change or null if the key didn't exist
+     * @param newValue Value after the change or null if the key was removed
+     */
+    void onChange(String key, @Nullable Object oldValue, @Nullable Object newValue);
+}
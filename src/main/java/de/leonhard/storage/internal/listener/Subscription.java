@@ -0,0 +1,12 @@
+package de.leonhard.storage.internal.listener;
+
+/**
+ * A registered {@link ChangeListener}.
+ */
+public interface Subscription {
+
+    /**
+     * Stops passing changes to the listener.
+     */
+    void unsubscribe();
+}
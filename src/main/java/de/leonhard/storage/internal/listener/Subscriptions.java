@@ -0,0 +1,146 @@
+package de.leonhard.storage.internal.listener;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * The {@link ChangeListener}s registered for a file.
+ *
+ * <p>A listener subscribed to a key is notified about changes of the key itself, of all keys
+ * below it and of layers above it which replace or remove the key.
+ */
+public final class Subscriptions {
+
+    private final List<Entry> entries = new CopyOnWriteArrayList<>();
+
+    public Subscription subscribe(
+            @NonNull final String path,
+            @NonNull final ChangeListener listener,
+            @Nullable final Executor executor) {
+        final Entry entry = new Entry(path, listener, executor);
+        this.entries.add(entry);
+        return entry;
+    }
+
+    public boolean isEmpty() {
+        return this.entries.isEmpty();
+    }
+
+    /**
+     * Notifies the listeners affected by a change of a single key.
+     *
+     * @param key      Changed key
+     * @param oldValue Value of the key before the change
+     * @param newValue Value of the key after the change
+     */
+    public void fireChange(
+            final String key,
+            @Nullable final Object oldValue,
+            @Nullable final Object newValue) {
+        if (Objects.equals(oldValue, newValue)) {
+            return;
+        }
+
+        for (final Entry entry : this.entries) {
+            if (entry.path.equals(key) || isBelow(key, entry.path)) {
+                entry.deliver(key, oldValue, newValue);
+            } else if (isBelow(entry.path, key)) {
+                // The layer containing the subscribed key changed
+                final String rest = entry.path.substring(key.length() + 1);
+                final Object oldPart = resolve(oldValue, rest);
+                final Object newPart = resolve(newValue, rest);
+                if (!Objects.equals(oldPart, newPart)) {
+                    entry.deliver(entry.path, oldPart, newPart);
+                }
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners whose keys differ between two versions of the whole data. Only the
+     * subscribed keys are compared.
+     *
+     * @param oldRoot Data before the change
+     * @param newRoot Data after the change
+     */
+    public void fireReload(final Map<String, Object> oldRoot, final Map<String, Object> newRoot) {
+        for (final Entry entry : this.entries) {
+            final Object oldValue = resolve(oldRoot, entry.path);
+            final Object newValue = resolve(newRoot, entry.path);
+            if (!Objects.equals(oldValue, newValue)) {
+                entry.deliver(entry.path, oldValue, newValue);
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Internal stuff
+    // ----------------------------------------------------------------------------------------------------
+
+    // Is child a key in the layer of parent?
+    private static boolean isBelow(final String child, final String parent) {
+        return child.length() > parent.length()
+                && child.charAt(parent.length()) == '.'
+                && child.startsWith(parent);
+    }
+
+    @Nullable
+    private static Object resolve(@Nullable final Object root, final String path) {
+        Object current = root;
+        int start = 0;
+        while (current instanceof Map) {
+            final int end = path.indexOf('.', start);
+            if (end == -1) {
+                return ((Map<?, ?>) current).get(path.substring(start));
+            }
+            current = ((Map<?, ?>) current).get(path.substring(start, end));
+            start = end + 1;
+        }
+        return null;
+    }
+
+    private final class Entry implements Subscription {
+
+        private final String path;
+        private final ChangeListener listener;
+        @Nullable
+        private final Executor executor;
+
+        private Entry(
+                final String path,
+                final ChangeListener listener,
+                @Nullable final Executor executor) {
+            this.path = path;
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        private void deliver(
+                final String key,
+                @Nullable final Object oldValue,
+                @Nullable final Object newValue) {
+            if (this.executor != null) {
+                this.executor.execute(() -> this.listener.onChange(key, oldValue, newValue));
+                return;
+            }
+
+            try {
+                this.listener.onChange(key, oldValue, newValue);
+            } catch (final RuntimeException ex) {
+                System.err.println("Exception in listener of '" + this.path + "'");
+                ex.printStackTrace();
+            }
+        }
+
+        @Override
+        public void unsubscribe() {
+            Subscriptions.this.entries.remove(this);
+        }
+    }
+}
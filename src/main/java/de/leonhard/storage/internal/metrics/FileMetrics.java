@@ -0,0 +1,78 @@
+package de.leonhard.storage.internal.metrics;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.io.File;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measurements of a single file collected by the {@link SimpleMetricsProvider}.
+ */
+@Getter
+public final class FileMetrics {
+
+    private final File file;
+    private final LatencyHistogram reloads = new LatencyHistogram();
+    private final LatencyHistogram parses = new LatencyHistogram();
+    private final LatencyHistogram writes = new LatencyHistogram();
+    private final LatencyHistogram reloadChecks = new LatencyHistogram();
+    // Counters
+    @Getter(AccessLevel.NONE)
+    private final LongAdder bytesRead = new LongAdder();
+    @Getter(AccessLevel.NONE)
+    private final LongAdder bytesWritten = new LongAdder();
+    @Getter(AccessLevel.NONE)
+    private final LongAdder changedChecks = new LongAdder();
+
+    FileMetrics(final File file) {
+        this.file = file;
+    }
+
+    public long getBytesRead() {
+        return this.bytesRead.sum();
+    }
+
+    public long getBytesWritten() {
+        return this.bytesWritten.sum();
+    }
+
+    /**
+     * @return How often checking the file for changes found a change.
+     */
+    public long getChangedChecks() {
+        return this.changedChecks.sum();
+    }
+
+    void recordReload(final long totalNanos, final long parseNanos, final long bytes) {
+        this.reloads.record(totalNanos);
+        this.parses.record(parseNanos);
+        this.bytesRead.add(bytes);
+    }
+
+    void recordWrite(final long nanos, final long bytes) {
+        this.writes.record(nanos);
+        this.bytesWritten.add(bytes);
+    }
+
+    void recordReloadCheck(final long nanos, final boolean changed) {
+        this.reloadChecks.record(nanos);
+        if (changed) {
+            this.changedChecks.increment();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FileMetrics{"
+                + "file=" + this.file
+                + ", reloads=[" + this.reloads + "]"
+                + ", parses=[" + this.parses + "]"
+                + ", writes=[" + this.writes + "]"
+                + ", reloadChecks=[" + this.reloadChecks + "]"
+                + ", changedChecks=" + getChangedChecks()
+                + ", bytesRead=" + getBytesRead()
+                + ", bytesWritten=" + getBytesWritten()
+                + "}";
+    }
+}
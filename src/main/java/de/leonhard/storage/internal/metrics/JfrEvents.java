@@ -0,0 +1,107 @@
+package de.leonhard.storage.internal.metrics;
+
+import de.leonhard.storage.internal.FlatFile;
+import jdk.jfr.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The actual JFR events. Only touched by {@link StorageEvents} if JFR is available.
+ */
+final class JfrEvents {
+
+    // Used to check whether an event type is recorded without allocating
+    private static final ReloadEvent RELOAD = new ReloadEvent();
+    private static final WriteEvent WRITE = new WriteEvent();
+    private static final YamlCommentMergeEvent YAML_COMMENT_MERGE = new YamlCommentMergeEvent();
+    private static final TomlParseEvent TOML_PARSE = new TomlParseEvent();
+
+    private JfrEvents() {
+    }
+
+    static StorageEvent beginReload() {
+        return RELOAD.isEnabled() ? begin(new ReloadEvent()) : StorageEvent.NONE;
+    }
+
+    static StorageEvent beginWrite() {
+        return WRITE.isEnabled() ? begin(new WriteEvent()) : StorageEvent.NONE;
+    }
+
+    static StorageEvent beginYamlCommentMerge() {
+        return YAML_COMMENT_MERGE.isEnabled()
+                ? begin(new YamlCommentMergeEvent())
+                : StorageEvent.NONE;
+    }
+
+    static StorageEvent beginTomlParse() {
+        return TOML_PARSE.isEnabled() ? begin(new TomlParseEvent()) : StorageEvent.NONE;
+    }
+
+    private static StorageEvent begin(final LightningEvent event) {
+        event.begin();
+        return event;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Event types
+    // ----------------------------------------------------------------------------------------------------
+
+    @Category("LightningStorage")
+    abstract static class LightningEvent extends Event implements StorageEvent {
+
+        @Label("Path")
+        String path;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Keys")
+        int keys;
+
+        @Override
+        public void finish(final FlatFile flatFile) {
+            end();
+            if (shouldCommit()) {
+                this.path = flatFile.getFilePath();
+                this.bytes = flatFile.getFile().length();
+                this.keys = flatFile.getFileData().leafCount();
+                commit();
+            }
+        }
+
+        @Override
+        public void finish(@Nullable final String path, final long bytes, final int keys) {
+            end();
+            if (shouldCommit()) {
+                this.path = path;
+                this.bytes = bytes;
+                this.keys = keys;
+                commit();
+            }
+        }
+    }
+
+    @Name("de.leonhard.storage.FlatFileReload")
+    @Label("FlatFile Reload")
+    @Description("Reading & parsing a file into memory")
+    static final class ReloadEvent extends LightningEvent {
+    }
+
+    @Name("de.leonhard.storage.FlatFileWrite")
+    @Label("FlatFile Write")
+    @Description("Serializing & writing the data of a file")
+    static final class WriteEvent extends LightningEvent {
+    }
+
+    @Name("de.leonhard.storage.YamlCommentMerge")
+    @Label("YAML Comment Merge")
+    @Description("Merging the comments of a YAML file into its freshly written data")
+    static final class YamlCommentMergeEvent extends LightningEvent {
+    }
+
+    @Name("de.leonhard.storage.TomlParse")
+    @Label("TOML Parse")
+    @Description("Parsing TOML into a map")
+    static final class TomlParseEvent extends LightningEvent {
+    }
+}
@@ -0,0 +1,69 @@
+package de.leonhard.storage.internal.metrics;
+
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.provider.MetricsProvider;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Built-in {@link MetricsProvider} keeping counters & latency histograms per file in memory.
+ *
+ * <p>Register it using {@code LightningProviders.metricsProvider(new SimpleMetricsProvider())} and
+ * export the collected {@link FileMetrics} to your monitoring periodically.
+ */
+public class SimpleMetricsProvider extends MetricsProvider {
+
+    private final Map<File, FileMetrics> metrics = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void onReload(
+            final FlatFile flatFile,
+            final long totalNanos,
+            final long parseNanos,
+            final long bytes) {
+        getMetrics(flatFile).recordReload(totalNanos, parseNanos, bytes);
+    }
+
+    @Override
+    public void onWrite(final FlatFile flatFile, final long nanos, final long bytes) {
+        getMetrics(flatFile).recordWrite(nanos, bytes);
+    }
+
+    @Override
+    public void onReloadCheck(final FlatFile flatFile, final long nanos, final boolean changed) {
+        getMetrics(flatFile).recordReloadCheck(nanos, changed);
+    }
+
+    /**
+     * @return Metrics of the given file. Created if there are none yet.
+     */
+    public FileMetrics getMetrics(final FlatFile flatFile) {
+        final File file = flatFile.getFile();
+        final FileMetrics existing = this.metrics.get(file);
+        if (existing != null) {
+            return existing;
+        }
+        final FileMetrics created = new FileMetrics(file);
+        final FileMetrics raced = this.metrics.putIfAbsent(file, created);
+        return raced == null ? created : raced;
+    }
+
+    /**
+     * @return Read-only view of the metrics of all files measured so far.
+     */
+    public Map<File, FileMetrics> getAllMetrics() {
+        return Collections.unmodifiableMap(this.metrics);
+    }
+
+    public void reset() {
+        this.metrics.clear();
+    }
+}
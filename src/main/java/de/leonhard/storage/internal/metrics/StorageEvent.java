@@ -0,0 +1,37 @@
+package de.leonhard.storage.internal.metrics;
+
+import de.leonhard.storage.internal.FlatFile;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A running JFR event started by {@link StorageEvents}.
+ *
+ * <p>If JFR isn't recording the event, {@link #NONE} is used which ignores everything.
+ */
+public interface StorageEvent {
+
+    StorageEvent NONE = new StorageEvent() {
+        @Override
+        public void finish(final FlatFile flatFile) {
+        }
+
+        @Override
+        public void finish(@Nullable final String path, final long bytes, final int keys) {
+        }
+    };
+
+    /**
+     * Ends the event and commits it with the path, size & key count of the given file. They are only
+     * looked up if the event is actually committed.
+     */
+    void finish(FlatFile flatFile);
+
+    /**
+     * Ends the event and commits it.
+     *
+     * @param path  Path of the file the event belongs to if known
+     * @param bytes Amount of data read or written
+     * @param keys  Amount of keys read or written
+     */
+    void finish(@Nullable String path, long bytes, int keys);
+}
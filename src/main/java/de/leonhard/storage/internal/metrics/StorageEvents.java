@@ -0,0 +1,60 @@
+package de.leonhard.storage.internal.metrics;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Emits JDK Flight Recorder events for our I/O, so storage stalls can be correlated with GC pauses
+ * & safepoints in a recording.
+ *
+ * <p>The events are only created if JFR is available & currently recording them. Otherwise {@link
+ * StorageEvent#NONE} is returned and no JFR classes are ever loaded.
+ */
+@UtilityClass
+public class StorageEvents {
+
+    private final boolean AVAILABLE = checkAvailable();
+
+    /**
+     * @return Whether the running JVM supports JFR.
+     */
+    public boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Starts an event measuring reading a file into memory.
+     */
+    public StorageEvent beginReload() {
+        return AVAILABLE ? JfrEvents.beginReload() : StorageEvent.NONE;
+    }
+
+    /**
+     * Starts an event measuring writing a file.
+     */
+    public StorageEvent beginWrite() {
+        return AVAILABLE ? JfrEvents.beginWrite() : StorageEvent.NONE;
+    }
+
+    /**
+     * Starts an event measuring merging the comments of a YAML file into freshly written data.
+     */
+    public StorageEvent beginYamlCommentMerge() {
+        return AVAILABLE ? JfrEvents.beginYamlCommentMerge() : StorageEvent.NONE;
+    }
+
+    /**
+     * Starts an event measuring parsing TOML.
+     */
+    public StorageEvent beginTomlParse() {
+        return AVAILABLE ? JfrEvents.beginTomlParse() : StorageEvent.NONE;
+    }
+
+    private boolean checkAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (final ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+}
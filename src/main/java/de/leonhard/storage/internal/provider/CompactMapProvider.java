@@ -0,0 +1,50 @@
+package de.leonhard.storage.internal.provider;
+
+import de.leonhard.storage.util.CompactMap;
+import de.leonhard.storage.util.Valid;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link MapProvider} optimized for memory instead of speed.
+ *
+ * <p>Layers are stored in {@link CompactMap}s which only switch to a hash map once they contain
+ * more than a few entries. Keys read from files are deduplicated per file. Useful for files with
+ * lots of small layers, like locations stored as x, y, z & world.
+ *
+ * <p>Register it using {@code LightningProviders.mapProvider(new CompactMapProvider())} before
+ * creating your files.
+ */
+public class CompactMapProvider extends MapProvider {
+
+    private final int capacity;
+
+    public CompactMapProvider() {
+        this(8);
+    }
+
+    /**
+     * @param capacity Amount of entries a layer may contain before a hash map is used
+     */
+    public CompactMapProvider(final int capacity) {
+        Valid.checkBoolean(capacity > 0, "Capacity must be positive");
+        this.capacity = capacity;
+    }
+
+    @Override
+    public Map<String, Object> getMapImplementation() {
+        return new CompactMap<>(this.capacity, HashMap::new);
+    }
+
+    @Override
+    public Map<String, Object> getSortedMapImplementation() {
+        return new CompactMap<>(this.capacity, LinkedHashMap::new);
+    }
+
+    @Override
+    public boolean isInterningKeys() {
+        return true;
+    }
+}
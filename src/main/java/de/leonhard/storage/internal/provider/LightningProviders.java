@@ -5,6 +5,13 @@ import lombok.Setter;
 import lombok.experimental.Accessors;
 import lombok.experimental.UtilityClass;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Interface for registering more powerful Map/List implementation than the default JDK one's
  * examples for these implementations are FastUtils & Trove Used in {@link
@@ -14,6 +21,9 @@ import lombok.experimental.UtilityClass;
 @Accessors(fluent = true, chain = true)
 public class LightningProviders {
 
+    // Operations waiting for a thread of our fallback pool
+    private final int ASYNC_QUEUE_CAPACITY = 1024;
+
     @Setter
     private MapProvider mapProvider;
     @Setter
@@ -22,6 +32,10 @@ public class LightningProviders {
     private InputStreamProvider inputStreamProvider;
     @Setter
     private ExceptionHandler exceptionHandler;
+    @Setter
+    private MetricsProvider metricsProvider;
+    @Setter
+    private Executor asyncExecutor;
 
     public MapProvider mapProvider() {
 
@@ -64,4 +78,57 @@ public class LightningProviders {
         return exceptionHandler = new ExceptionHandler() {
         };
     }
+
+    public MetricsProvider metricsProvider() {
+        if (metricsProvider != null) {
+            return metricsProvider;
+        }
+
+        return metricsProvider = new MetricsProvider() {
+        };
+    }
+
+    /**
+     * Executor running the asynchronous operations of our FlatFiles. Uses virtual threads if
+     * available (Java 21+), a small pool of daemon threads otherwise. The pool queues a bounded
+     * amount of operations, once the queue is full operations are run by the thread submitting
+     * them, which slows submitters down instead of dropping operations.
+     */
+    public Executor asyncExecutor() {
+        if (asyncExecutor != null) {
+            return asyncExecutor;
+        }
+
+        return asyncExecutor = createAsyncExecutor();
+    }
+
+    private Executor createAsyncExecutor() {
+        try {
+            // Looked up reflectively so we can still be compiled & run on Java 8
+            return (Executor) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (final ReflectiveOperationException ignored) {
+            // No virtual threads
+        }
+
+        final int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        final AtomicInteger counter = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                30,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(ASYNC_QUEUE_CAPACITY),
+                runnable -> {
+                    final Thread thread = new Thread(
+                            runnable,
+                            "LightningStorage-IO-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 }
@@ -3,6 +3,8 @@ package de.leonhard.storage.internal.provider;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class MapProvider {
 
@@ -13,4 +15,41 @@ public abstract class MapProvider {
     public Map<String, Object> getSortedMapImplementation() {
         return new LinkedHashMap<>();
     }
+
+    /**
+     * @return Map keeping its keys in their natural order.
+     */
+    public Map<String, Object> getNaturalMapImplementation() {
+        return new TreeMap<>();
+    }
+
+    /**
+     * @return Map which can be read & changed by several threads at once.
+     */
+    public Map<String, Object> getConcurrentMapImplementation() {
+        return new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return Whether equal keys read from a file should be deduplicated, so every distinct key is
+     * only stored once per file.
+     */
+    public boolean isInterningKeys() {
+        return false;
+    }
+
+    /**
+     * @return Minimum size of lists of ints, longs or doubles to store them as primitive arrays, see
+     * {@link de.leonhard.storage.util.NumberArrays}. Zero or less to keep all lists boxed.
+     */
+    public int getPrimitiveArrayThreshold() {
+        return 64;
+    }
+
+    /**
+     * @return Whether primitive arrays should be stored in direct buffers outside of the heap.
+     */
+    public boolean isAllocatingOffHeap() {
+        return false;
+    }
 }
@@ -0,0 +1,55 @@
+package de.leonhard.storage.internal.provider;
+
+import de.leonhard.storage.internal.FlatFile;
+
+/**
+ * Receives measurements of the I/O of our {@link de.leonhard.storage.internal.FlatFile}s.
+ *
+ * <p>The default implementation is disabled and ignores everything. When {@link #isEnabled()}
+ * returns false no measurements are taken at all. See {@link
+ * de.leonhard.storage.internal.metrics.SimpleMetricsProvider} for a built-in implementation.
+ */
+public abstract class MetricsProvider {
+
+    /**
+     * @return Whether measurements should be taken & passed to this provider.
+     */
+    public boolean isEnabled() {
+        return false;
+    }
+
+    /**
+     * Called after a file was read into memory.
+     *
+     * @param flatFile   File which was reloaded
+     * @param totalNanos Time the whole reload took
+     * @param parseNanos Time reading & parsing the file took
+     * @param bytes      Size of the file
+     */
+    public void onReload(
+            final FlatFile flatFile,
+            final long totalNanos,
+            final long parseNanos,
+            final long bytes) {
+    }
+
+    /**
+     * Called after our data was written to a file.
+     *
+     * @param flatFile File which was written
+     * @param nanos    Time serializing & writing took
+     * @param bytes    Size of the file after writing
+     */
+    public void onWrite(final FlatFile flatFile, final long nanos, final long bytes) {
+    }
+
+    /**
+     * Called after a file was checked for changes before accessing its data.
+     *
+     * @param flatFile File which was checked
+     * @param nanos    Time the check took
+     * @param changed  Whether the file has changed & will be reloaded
+     */
+    public void onReloadCheck(final FlatFile flatFile, final long nanos, final boolean changed) {
+    }
+}
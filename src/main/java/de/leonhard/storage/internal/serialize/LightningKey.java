@@ -0,0 +1,22 @@
+package de.leonhard.storage.internal.serialize;
+
+import java.lang.annotation.*;
+
+/**
+ * Changes the key a field of a {@link LightningMapped} class is stored under.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface LightningKey {
+
+    /**
+     * @return Key to store the field under. Defaults to the name of the field.
+     */
+    String value() default "";
+
+    /**
+     * @return Whether the field should be skipped entirely.
+     */
+    boolean ignore() default false;
+}
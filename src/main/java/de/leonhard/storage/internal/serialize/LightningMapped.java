@@ -0,0 +1,17 @@
+package de.leonhard.storage.internal.serialize;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a class whose fields should be mapped to keys automatically. Classes annotated with this
+ * annotation don't need a hand-written {@link LightningSerializable}: The {@link
+ * LightningSerializer} will create a {@link MappedSerializable} for them on first use.
+ *
+ * <p>Every non-static & non-transient field is mapped. Use {@link LightningKey} to change the key
+ * a field is stored under. Mapped classes need a constructor without arguments.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface LightningMapped {
+}
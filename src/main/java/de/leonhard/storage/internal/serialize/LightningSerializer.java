@@ -5,21 +5,59 @@ import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 /**
  * Class to register serializable's
+ *
+ * <p>Serializables are indexed by their class. Lookups for classes which were not registered
+ * directly are resolved against their superclasses & interfaces once and cached afterwards, so
+ * lookups never need to take a lock or scan all registered serializables. Resolved lookups are
+ * cached in a {@link ClassValue}, so they don't keep the classes & their class loaders alive.
  */
 @UtilityClass
 public class LightningSerializer {
 
-    private final List<LightningSerializable<?>> serializables = Collections
-            .synchronizedList(new ArrayList<>());
+    /**
+     * Marker for classes we already looked up without finding a serializable.
+     */
+    private final LightningSerializable<?> NONE = new LightningSerializable<Object>() {
+        @Override
+        public Object deserialize(@NonNull final Object obj) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object serialize(@NonNull final Object o) {
+            throw new UnsupportedOperationException();
+        }
 
+        @Override
+        public Class<Object> getClazz() {
+            return Object.class;
+        }
+    };
+
+    private final Map<Class<?>, LightningSerializable<?>> serializables = new ConcurrentHashMap<>();
+    // Swapped instead of cleared so a lookup racing with a registration can't leave stale entries
+    private volatile ClassValue<LightningSerializable<?>> resolved = newResolved();
+
+    /**
+     * Checks if a class can be serialized. Classes annotated with {@link LightningMapped} which
+     * can't be mapped aren't serializable.
+     */
     public boolean isSerializable(final Class<?> clazz) {
-        return findSerializable(clazz) != null;
+        try {
+            return findSerializable(clazz) != null;
+        } catch (final RuntimeException ex) {
+            return false;
+        }
     }
 
     /**
@@ -31,21 +69,79 @@ public class LightningSerializer {
         Valid.notNull(
                 serializable.getClazz(),
                 "Class of serializable mustn't be null");
-        serializables.add(serializable);
+        serializables.put(serializable.getClazz(), serializable);
+        // Registering might change the resolution of subclasses
+        resolved = newResolved();
     }
 
+    /**
+     * Finds the serializable for a class. If no serializable was registered for the class itself,
+     * classes annotated with {@link LightningMapped} get a {@link MappedSerializable}. Otherwise the
+     * one registered for the nearest superclass is used. After that the interfaces of the class are
+     * searched, breadth first.
+     *
+     * @param clazz Class to find the serializable for.
+     * @return Serializable or null if none could be found.
+     */
     @Nullable
     public LightningSerializable<?> findSerializable(final Class<?> clazz) {
-        for (final LightningSerializable<?> serializable : serializables) {
-            if (serializable.getClazz().equals(clazz)) {
+        final LightningSerializable<?> direct = serializables.get(clazz);
+        if (direct != null) {
+            return direct;
+        }
+
+        final LightningSerializable<?> serializable = resolved.get(clazz);
+        return serializable == NONE ? null : serializable;
+    }
+
+    private ClassValue<LightningSerializable<?>> newResolved() {
+        return new ClassValue<LightningSerializable<?>>() {
+            @Override
+            protected LightningSerializable<?> computeValue(final Class<?> type) {
+                return resolve(type);
+            }
+        };
+    }
+
+    private LightningSerializable<?> resolve(final Class<?> clazz) {
+        // Mapped classes get their serializable created on first use
+        if (clazz.isAnnotationPresent(LightningMapped.class)) {
+            return MappedSerializable.of(clazz);
+        }
+
+        // Superclasses first: they are the most specific match
+        Class<?> current = clazz.getSuperclass();
+        while (current != null) {
+            final LightningSerializable<?> serializable = serializables.get(current);
+            if (serializable != null) {
                 return serializable;
             }
+            current = current.getSuperclass();
+        }
+
+        final Deque<Class<?>> queue = new ArrayDeque<>();
+        final Set<Class<?>> visited = new HashSet<>();
+        for (Class<?> type = clazz; type != null; type = type.getSuperclass()) {
+            queue.add(type);
+        }
+
+        while (!queue.isEmpty()) {
+            for (final Class<?> anInterface : queue.poll().getInterfaces()) {
+                if (!visited.add(anInterface)) {
+                    continue;
+                }
+                final LightningSerializable<?> serializable = serializables.get(anInterface);
+                if (serializable != null) {
+                    return serializable;
+                }
+                queue.add(anInterface);
+            }
         }
-        return null;
+        return NONE;
     }
 
     @SuppressWarnings("ALL")
-    /**e
+    /**
      * Method to save an object
      */
     public Object serialize(final Object obj) {
@@ -65,4 +161,20 @@ public class LightningSerializer {
                 "Raw: '" + raw.getClass().getSimpleName() + "'");
         return (T) serializable.deserialize(raw);
     }
+
+    /**
+     * Method to deserialize many values of the same type. The serializable is only looked up once
+     * and the values are deserialized lazily while the stream is consumed.
+     *
+     * @param raw  Raw values to deserialize
+     * @param type Type of the values
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Stream<T> deserializeAll(final Stream<?> raw, final Class<T> type) {
+        final LightningSerializable<?> serializable = findSerializable(type);
+        Valid.notNull(
+                serializable,
+                "No serializable found for '" + type.getSimpleName() + "'");
+        return raw.map(value -> (T) serializable.deserialize(value));
+    }
 }
@@ -0,0 +1,228 @@
+package de.leonhard.storage.internal.serialize;
+
+import de.leonhard.storage.internal.provider.LightningProviders;
+import de.leonhard.storage.util.ClassWrapper;
+import de.leonhard.storage.util.Valid;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * {@link LightningSerializable} for classes annotated with {@link LightningMapped}.
+ *
+ * <p>All reflective work is done once when the serializable is created: Fields are resolved to
+ * {@link MethodHandle}s adapted to the generic (Object)Object shape, so (de)serializing an object
+ * later on is a plain loop over pre-built accessors without any reflection.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public final class MappedSerializable<T> implements LightningSerializable<T> {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType
+            .methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    @Getter
+    private final Class<T> clazz;
+    private final MethodHandle constructor;
+    private final MappedField[] fields;
+
+    private MappedSerializable(
+            final Class<T> clazz,
+            final MethodHandle constructor,
+            final MappedField[] fields) {
+        this.clazz = clazz;
+        this.constructor = constructor;
+        this.fields = fields;
+    }
+
+    /**
+     * Creates the serializable for a class.
+     *
+     * @param clazz Class to map. Needs a constructor without arguments.
+     */
+    public static <T> MappedSerializable<T> of(@NonNull final Class<T> clazz) {
+        Valid.checkBoolean(
+                !clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers()),
+                "Can't map '" + clazz.getName() + "'",
+                "Mapped classes mustn't be abstract");
+
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            final Constructor<T> constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+
+            final List<MappedField> fields = new ArrayList<>();
+            collectFields(clazz, lookup, fields);
+
+            return new MappedSerializable<>(
+                    clazz,
+                    lookup.unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE),
+                    fields.toArray(new MappedField[0]));
+        } catch (final NoSuchMethodException ex) {
+            throw LightningProviders.exceptionHandler().create(
+                    ex,
+                    "Can't map '" + clazz.getName() + "'",
+                    "Mapped classes need a constructor without arguments");
+        } catch (final IllegalAccessException | RuntimeException ex) {
+            throw LightningProviders.exceptionHandler().create(
+                    ex,
+                    "Can't map '" + clazz.getName() + "'");
+        }
+    }
+
+    private static void collectFields(
+            final Class<?> clazz,
+            final MethodHandles.Lookup lookup,
+            final List<MappedField> out) throws IllegalAccessException {
+        // Fields of superclasses come first
+        if (clazz.getSuperclass() != null && clazz.getSuperclass() != Object.class) {
+            collectFields(clazz.getSuperclass(), lookup, out);
+        }
+
+        for (final Field field : clazz.getDeclaredFields()) {
+            final int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                continue;
+            }
+
+            final LightningKey key = field.getAnnotation(LightningKey.class);
+            if (key != null && key.ignore()) {
+                continue;
+            }
+
+            field.setAccessible(true);
+            out.add(new MappedField(
+                    key == null || key.value().isEmpty() ? field.getName() : key.value(),
+                    field.getType(),
+                    lookup.unreflectGetter(field).asType(GETTER_TYPE),
+                    lookup.unreflectSetter(field).asType(SETTER_TYPE)));
+        }
+    }
+
+    @Override
+    public T deserialize(@NonNull final Object obj) throws ClassCastException {
+        if (!(obj instanceof Map)) {
+            throw new ClassCastException(
+                    "Can't deserialize '" + clazz.getSimpleName() + "' from '"
+                            + obj.getClass().getSimpleName() + "'");
+        }
+
+        final Map<String, Object> data = (Map<String, Object>) obj;
+        try {
+            final Object instance = (Object) constructor.invokeExact();
+            for (final MappedField field : fields) {
+                final Object raw = data.get(field.key);
+                if (raw != null) {
+                    field.setter.invokeExact(instance, toFieldValue(raw, field.type));
+                }
+            }
+            return (T) instance;
+        } catch (final ClassCastException ex) {
+            throw ex;
+        } catch (final Throwable throwable) {
+            throw LightningProviders.exceptionHandler().create(
+                    throwable,
+                    "Can't deserialize '" + clazz.getName() + "'");
+        }
+    }
+
+    @Override
+    public Object serialize(@NonNull final T t) throws ClassCastException {
+        final Map<String, Object> result = new LinkedHashMap<>(fields.length * 2);
+        try {
+            for (final MappedField field : fields) {
+                final Object value = (Object) field.getter.invokeExact((Object) t);
+                if (value != null) {
+                    result.put(field.key, toRawValue(value));
+                }
+            }
+        } catch (final Throwable throwable) {
+            throw LightningProviders.exceptionHandler().create(
+                    throwable,
+                    "Can't serialize '" + clazz.getName() + "'");
+        }
+        return result;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Converting values
+    // ----------------------------------------------------------------------------------------------------
+
+    private static Object toRawValue(final Object value) {
+        if (value instanceof String
+                || value instanceof Number
+                || value instanceof Boolean
+                || value instanceof Collection
+                || value instanceof Map) {
+            return value;
+        } else if (value instanceof Enum) {
+            return ((Enum) value).name();
+        } else if (value instanceof Character) {
+            return value.toString();
+        } else if (LightningSerializer.isSerializable(value.getClass())) {
+            return LightningSerializer.serialize(value);
+        }
+        return value;
+    }
+
+    private static Object toFieldValue(final Object raw, final Class<?> type) {
+        if (type.isInstance(raw)) {
+            return raw;
+        } else if (type.isPrimitive()
+                || Number.class.isAssignableFrom(type)
+                || type == Boolean.class
+                || type == Character.class) {
+            return toPrimitive(raw, type);
+        } else if (type.isEnum()) {
+            return Enum.valueOf((Class) type, raw.toString());
+        } else if (type == String.class) {
+            return raw.toString();
+        } else if (LightningSerializer.isSerializable(type)) {
+            return LightningSerializer.deserialize(raw, type);
+        }
+        return raw;
+    }
+
+    private static Object toPrimitive(final Object raw, final Class<?> type) {
+        if (type == short.class || type == Short.class) {
+            return ClassWrapper.SHORT.getShort(raw);
+        } else if (type == byte.class || type == Byte.class) {
+            return ClassWrapper.BYTE.getByte(raw);
+        } else if (type == char.class || type == Character.class) {
+            final String string = raw.toString();
+            Valid.checkBoolean(
+                    string.length() == 1,
+                    "Can't convert '" + string + "' to a char",
+                    "Expected exactly one character");
+            return string.charAt(0);
+        }
+        return ClassWrapper.getFromDef(raw, type);
+    }
+
+    private static final class MappedField {
+
+        private final String key;
+        private final Class<?> type;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        private MappedField(
+                final String key,
+                final Class<?> type,
+                final MethodHandle getter,
+                final MethodHandle setter) {
+            this.key = key;
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+}
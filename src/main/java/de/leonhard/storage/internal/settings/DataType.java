@@ -1,31 +1,63 @@
 package de.leonhard.storage.internal.settings;
 
 import de.leonhard.storage.internal.provider.LightningProviders;
-import de.leonhard.storage.internal.provider.MapProvider;
 import lombok.RequiredArgsConstructor;
 
 import java.util.Map;
 
 /**
  * An Enum defining how the Data should be stored
+ *
+ * <p>Every layer of a file is created using the map implementation of its DataType, see {@link
+ * de.leonhard.storage.internal.provider.MapProvider}.
  */
 @RequiredArgsConstructor
 public enum DataType {
+    /**
+     * Keys keep the order they were inserted in.
+     */
     SORTED {
         @Override
         public Map<String, Object> getMapImplementation() {
-            return mapProvider.getSortedMapImplementation();
+            return LightningProviders.mapProvider().getSortedMapImplementation();
         }
     },
 
+    /**
+     * Keys have no particular order. Uses the least memory.
+     */
     UNSORTED {
         @Override
         public Map<String, Object> getMapImplementation() {
-            return mapProvider.getSortedMapImplementation();
+            return LightningProviders.mapProvider().getMapImplementation();
+        }
+    },
+
+    /**
+     * Keys are kept in their natural (alphabetical) order.
+     */
+    NATURAL {
+        @Override
+        public Map<String, Object> getMapImplementation() {
+            return LightningProviders.mapProvider().getNaturalMapImplementation();
+        }
+    },
+
+    /**
+     * Layers can be read while they are changed by other threads. Null values aren't supported:
+     * Setting a key to null removes it.
+     */
+    CONCURRENT {
+        @Override
+        public Map<String, Object> getMapImplementation() {
+            return LightningProviders.mapProvider().getConcurrentMapImplementation();
         }
-    };
 
-    private static final MapProvider mapProvider = LightningProviders.mapProvider();
+        @Override
+        public boolean isSupportingNullValues() {
+            return false;
+        }
+    };
 
     public static DataType forConfigSetting(final ConfigSettings configSettings) {
         // Only Configs needs the preservation of the order of the keys
@@ -39,4 +71,8 @@ public enum DataType {
     public Map<String, Object> getMapImplementation() {
         throw new AbstractMethodError("Not implemented");
     }
+
+    public boolean isSupportingNullValues() {
+        return true;
+    }
 }
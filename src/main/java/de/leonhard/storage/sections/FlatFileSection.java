@@ -1,18 +1,28 @@
 package de.leonhard.storage.sections;
 
+import de.leonhard.storage.internal.DataNode;
 import de.leonhard.storage.internal.DataStorage;
+import de.leonhard.storage.internal.FileData;
 import de.leonhard.storage.internal.FlatFile;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 import java.util.Set;
 
+/**
+ * Section of a {@link FlatFile}, all keys are relative to its path prefix.
+ *
+ * <p>The layer of the section is resolved once & reused for reads until it is replaced in the data
+ * of the file, so keep sections which are read often instead of calling {@link
+ * FlatFile#getSection(String)} every time.
+ */
 @RequiredArgsConstructor
 public class FlatFileSection implements DataStorage {
 
     protected final FlatFile flatFile;
     @Getter
     private final String pathPrefix;
+    private volatile ResolvedLayer resolvedLayer;
 
     @Override
     public Set<String> singleLayerKeySet() {
@@ -46,12 +56,22 @@ public class FlatFileSection implements DataStorage {
 
     @Override
     public boolean contains(final String key) {
-        return flatFile.contains(createFinalKey(key));
+        if (pathPrefix == null || pathPrefix.isEmpty()) {
+            return flatFile.contains(key);
+        }
+        flatFile.reloadIfNeeded();
+        final ResolvedLayer resolved = resolveLayer();
+        return resolved.layer != null && resolved.fileData.containsKey(resolved.layer, key);
     }
 
     @Override
     public Object get(final String key) {
-        return flatFile.get(createFinalKey(key));
+        if (pathPrefix == null || pathPrefix.isEmpty()) {
+            return flatFile.get(key);
+        }
+        flatFile.reloadIfNeeded();
+        final ResolvedLayer resolved = resolveLayer();
+        return resolved.layer == null ? null : resolved.fileData.get(resolved.layer, key);
     }
 
     @Override
@@ -62,4 +82,35 @@ public class FlatFileSection implements DataStorage {
     private String createFinalKey(final String key) {
         return pathPrefix == null || pathPrefix.isEmpty() ? key : pathPrefix + "." + key;
     }
+
+    private ResolvedLayer resolveLayer() {
+        final FileData fileData = flatFile.getFileData();
+        final String filePrefix = flatFile.getPathPrefix();
+        final ResolvedLayer cached = this.resolvedLayer;
+        if (cached != null
+                && cached.fileData == fileData
+                && cached.filePrefix == filePrefix
+                && fileData.isCurrent(cached.layer, cached.version)) {
+            return cached;
+        }
+        // The version has to be read before resolving, so changes in between are noticed next time
+        final int version = fileData.getStructureVersion();
+        final String fullPrefix = filePrefix == null ? pathPrefix : filePrefix + "." + pathPrefix;
+        final ResolvedLayer resolved = new ResolvedLayer(
+                fileData,
+                filePrefix,
+                version,
+                fileData.getLayer(fullPrefix));
+        this.resolvedLayer = resolved;
+        return resolved;
+    }
+
+    @RequiredArgsConstructor
+    private static final class ResolvedLayer {
+
+        private final FileData fileData;
+        private final String filePrefix;
+        private final int version;
+        private final DataNode layer;
+    }
 }
@@ -0,0 +1,240 @@
+package de.leonhard.storage.util;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Memory friendly map for small layers.
+ *
+ * <p>Up to {@code capacity} entries are stored in a single array of alternating keys & values and
+ * looked up by a linear scan, which is as fast as hashing for a handful of keys. Once more entries
+ * are added the map promotes itself to the map created by its factory. Insertion order is kept
+ * until then.
+ */
+public final class CompactMap<K, V> extends AbstractMap<K, V> {
+
+    private final int capacity;
+    private final Supplier<Map<K, V>> factory;
+    // Alternating keys & values, null until the first entry is added
+    private Object[] table;
+    private int size;
+    // Replaces the table once we grew too big
+    private Map<K, V> promoted;
+
+    /**
+     * @param capacity Amount of entries to store without hashing
+     * @param factory  Creates the map used once we contain more entries
+     */
+    public CompactMap(final int capacity, final Supplier<Map<K, V>> factory) {
+        Valid.checkBoolean(capacity > 0, "Capacity must be positive");
+        this.capacity = capacity;
+        this.factory = factory;
+    }
+
+    @Override
+    public int size() {
+        return this.promoted != null ? this.promoted.size() : this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return this.promoted != null ? this.promoted.containsKey(key) : indexOf(key) != -1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        if (this.promoted != null) {
+            return this.promoted.get(key);
+        }
+        final int index = indexOf(key);
+        return index == -1 ? null : (V) this.table[index + 1];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(final K key, final V value) {
+        if (this.promoted != null) {
+            return this.promoted.put(key, value);
+        }
+
+        final int index = indexOf(key);
+        if (index != -1) {
+            final V old = (V) this.table[index + 1];
+            this.table[index + 1] = value;
+            return old;
+        }
+
+        if (this.size == this.capacity) {
+            promote();
+            return this.promoted.put(key, value);
+        }
+
+        if (this.table == null) {
+            this.table = new Object[Math.min(4, this.capacity) * 2];
+        } else if (this.size * 2 == this.table.length) {
+            this.table = Arrays.copyOf(this.table, Math.min(this.size * 2, this.capacity) * 2);
+        }
+        this.table[this.size * 2] = key;
+        this.table[this.size * 2 + 1] = value;
+        this.size++;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(final Object key) {
+        if (this.promoted != null) {
+            return this.promoted.remove(key);
+        }
+        final int index = indexOf(key);
+        if (index == -1) {
+            return null;
+        }
+        final V old = (V) this.table[index + 1];
+        removeAt(index);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        this.promoted = null;
+        this.table = null;
+        this.size = 0;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Internal stuff
+    // ----------------------------------------------------------------------------------------------------
+
+    // Index of the key in our table or -1
+    private int indexOf(final Object key) {
+        final Object[] table = this.table;
+        final int end = this.size * 2;
+        // Keys are often interned, so try the cheap identity check first
+        for (int i = 0; i < end; i += 2) {
+            if (table[i] == key) {
+                return i;
+            }
+        }
+        if (key == null) {
+            return -1;
+        }
+        for (int i = 0; i < end; i += 2) {
+            if (key.equals(table[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(final int index) {
+        final int end = this.size * 2;
+        System.arraycopy(this.table, index + 2, this.table, index, end - index - 2);
+        this.table[end - 2] = null;
+        this.table[end - 1] = null;
+        this.size--;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void promote() {
+        final Map<K, V> map = this.factory.get();
+        for (int i = 0; i < this.size * 2; i += 2) {
+            map.put((K) this.table[i], (V) this.table[i + 1]);
+        }
+        this.promoted = map;
+        this.table = null;
+        this.size = 0;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return CompactMap.this.promoted != null
+                    ? CompactMap.this.promoted.entrySet().iterator()
+                    : new TableIterator();
+        }
+
+        @Override
+        public int size() {
+            return CompactMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            CompactMap.this.clear();
+        }
+    }
+
+    private final class TableIterator implements Iterator<Entry<K, V>> {
+
+        private int next;
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return this.next < CompactMap.this.size * 2;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.next;
+            this.next += 2;
+            return new TableEntry<>(
+                    CompactMap.this,
+                    this.last,
+                    (K) CompactMap.this.table[this.last],
+                    (V) CompactMap.this.table[this.last + 1]);
+        }
+
+        @Override
+        public void remove() {
+            if (this.last == -1) {
+                throw new IllegalStateException();
+            }
+            removeAt(this.last);
+            this.next = this.last;
+            this.last = -1;
+        }
+    }
+
+    // Writes values set through it into the table of its map
+    private static final class TableEntry<K, V> extends SimpleEntry<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient CompactMap<K, V> map;
+        private final int index;
+
+        private TableEntry(
+                final CompactMap<K, V> map,
+                final int index,
+                final K key,
+                final V value) {
+            super(key, value);
+            this.map = map;
+            this.index = index;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            this.map.table[this.index + 1] = value;
+            return super.setValue(value);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package de.leonhard.storage.util;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * List of doubles stored without boxing them.
+ *
+ * <p>The elements are kept in a {@link DoubleBuffer}, either on the heap or in a direct buffer
+ * outside of it. Elements are only boxed if they are accessed using the methods of {@link
+ * java.util.List}, use {@link #getDouble(int)} & {@link #toDoubleArray()} to avoid that.
+ *
+ * @see NumberArrays
+ */
+public final class DoubleArrayList extends AbstractList<Double> implements RandomAccess {
+
+    private final boolean offHeap;
+    private DoubleBuffer buffer;
+    private int size;
+
+    public DoubleArrayList(final int capacity, final boolean offHeap) {
+        Valid.checkBoolean(capacity >= 0, "Capacity mustn't be negative");
+        this.offHeap = offHeap;
+        this.buffer = allocate(capacity, offHeap);
+    }
+
+    public static DoubleArrayList of(final double[] array, final boolean offHeap) {
+        final DoubleArrayList list = new DoubleArrayList(array.length, offHeap);
+        list.buffer.put(array, 0, array.length);
+        list.size = array.length;
+        return list;
+    }
+
+    public double getDouble(final int index) {
+        IntArrayList.checkIndex(index, this.size);
+        return this.buffer.get(index);
+    }
+
+    public double setDouble(final int index, final double value) {
+        IntArrayList.checkIndex(index, this.size);
+        final double old = this.buffer.get(index);
+        this.buffer.put(index, value);
+        return old;
+    }
+
+    public void addDouble(final double value) {
+        ensureCapacity(this.size + 1);
+        this.buffer.put(this.size++, value);
+    }
+
+    public double[] toDoubleArray() {
+        final double[] array = new double[this.size];
+        final DoubleBuffer source = this.buffer.duplicate();
+        // Through Buffer: The covariant overrides of Java 9+ don't exist on Java 8
+        ((Buffer) source).position(0);
+        source.get(array, 0, this.size);
+        return array;
+    }
+
+    public boolean isOffHeap() {
+        return this.offHeap;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // List
+    // ----------------------------------------------------------------------------------------------------
+
+    @Override
+    public Double get(final int index) {
+        return getDouble(index);
+    }
+
+    @Override
+    public Double set(final int index, final Double element) {
+        return setDouble(index, element);
+    }
+
+    @Override
+    public void add(final int index, final Double element) {
+        IntArrayList.checkIndex(index, this.size + 1);
+        ensureCapacity(this.size + 1);
+        for (int i = this.size; i > index; i--) {
+            this.buffer.put(i, this.buffer.get(i - 1));
+        }
+        this.buffer.put(index, element);
+        this.size++;
+        this.modCount++;
+    }
+
+    @Override
+    public Double remove(final int index) {
+        IntArrayList.checkIndex(index, this.size);
+        final double old = this.buffer.get(index);
+        for (int i = index + 1; i < this.size; i++) {
+            this.buffer.put(i - 1, this.buffer.get(i));
+        }
+        this.size--;
+        this.modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        this.size = 0;
+        this.modCount++;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < this.size; i++) {
+            hash = 31 * hash + Double.hashCode(this.buffer.get(i));
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof DoubleArrayList)) {
+            return super.equals(obj);
+        }
+        final DoubleArrayList other = (DoubleArrayList) obj;
+        if (other.size != this.size) {
+            return false;
+        }
+        for (int i = 0; i < this.size; i++) {
+            if (Double.doubleToLongBits(this.buffer.get(i))
+                    != Double.doubleToLongBits(other.buffer.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Internal stuff
+    // ----------------------------------------------------------------------------------------------------
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity <= this.buffer.capacity()) {
+            return;
+        }
+        final int grownCapacity = Math.max(capacity, this.buffer.capacity() * 3 / 2 + 1);
+        final DoubleBuffer grown = allocate(grownCapacity, this.offHeap);
+        final DoubleBuffer source = this.buffer.duplicate();
+        ((Buffer) source).position(0);
+        ((Buffer) source).limit(this.size);
+        grown.put(source);
+        this.buffer = grown;
+    }
+
+    private static DoubleBuffer allocate(final int capacity, final boolean offHeap) {
+        return offHeap
+                ? ByteBuffer.allocateDirect(capacity * Double.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asDoubleBuffer()
+                : DoubleBuffer.allocate(capacity);
+    }
+}
@@ -1,7 +1,29 @@
 package de.leonhard.storage.util;
 
+import de.leonhard.storage.internal.FileType;
 import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.compression.Compression;
+import de.leonhard.storage.internal.compression.CompressionCodec;
+import de.leonhard.storage.internal.compression.CompressionCodecs;
+import de.leonhard.storage.internal.editor.stream.*;
+import de.leonhard.storage.internal.editor.toml.TomlManager;
+import de.leonhard.storage.internal.exceptions.LightningValidationException;
+import de.leonhard.storage.internal.provider.LightningProviders;
+import lombok.NonNull;
+import lombok.Value;
 import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @UtilityClass
 public class FlatFileConverter {
@@ -11,4 +33,270 @@ public class FlatFileConverter {
         destination.getFileData().loadData(source.getFileData().toMap());
         destination.write();
     }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Converting files without loading them
+    // ----------------------------------------------------------------------------------------------------
+
+    /**
+     * Converts a file to the format of the destination, both formats are taken from the extensions.
+     * Files named like "data.json.gz" are decompressed or compressed by the codec of their
+     * extension.
+     *
+     * @see #convert(File, FileType, File, FileType)
+     */
+    public void convert(@NonNull final File source, @NonNull final File destination) {
+        convert(source, typeOf(source), destination, typeOf(destination));
+    }
+
+    /**
+     * Converts a file to another format while reading it. JSON & YAML are streamed, so only the
+     * values currently converted are held in memory. TOML is read or written as a whole.
+     *
+     * <p>The destination is written to a new temporary file next to it first & only replaced once
+     * the conversion succeeded.
+     */
+    public void convert(
+            @NonNull final File source,
+            @NonNull final FileType sourceType,
+            @NonNull final File destination,
+            @NonNull final FileType destinationType) {
+        final File parent = destination.getAbsoluteFile().getParentFile();
+        File temp = null;
+        try {
+            Files.createDirectories(parent.toPath());
+            // Unique, so conversions to the same destination can't write into each other's file
+            temp = Files.createTempFile(parent.toPath(), destination.getName(), ".tmp").toFile();
+            try (final Reader reader = createReader(source, sourceType);
+                 final Writer writer = createWriter(
+                         temp,
+                         destinationType,
+                         CompressionCodecs.forFile(destination))) {
+                write(createSource(source, reader, sourceType), destinationType, writer);
+            }
+            Files.move(temp.toPath(), destination.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (final Exception ex) {
+            if (temp != null) {
+                temp.delete();
+            }
+            throw LightningProviders.exceptionHandler().create(
+                    ex,
+                    "Error while converting '" + source.getName() + "' to '"
+                            + destination.getName() + "'.",
+                    "In: '" + FileUtils.getParentDirPath(destination) + "'");
+        }
+    }
+
+    /**
+     * Converts all JSON, YAML & TOML files in a directory & its subdirectories to the given type.
+     * The files are written to the same relative paths in the destination directory, with the
+     * extension of the new type. Files which already have that type are skipped.
+     *
+     * <p>Files are converted on LightningProviders#asyncExecutor, but never more than the given
+     * number at a time to bound the memory used. Files failing to convert don't stop the others.
+     * Files which would be converted to the same destination, like "data.json" & "data.yml", aren't
+     * converted & are reported as failed.
+     *
+     * @param parallelism Number of files converted at the same time
+     * @param listener    Called after each file from the converting thread, may be null
+     * @return The conversions which failed, empty if all files were converted.
+     */
+    public List<Conversion> convertDirectory(
+            @NonNull final File sourceDirectory,
+            @NonNull final File destinationDirectory,
+            @NonNull final FileType destinationType,
+            final int parallelism,
+            @Nullable final Consumer<Conversion> listener) {
+        Valid.checkBoolean(parallelism > 0, "Parallelism must be positive");
+        Valid.checkBoolean(
+                sourceDirectory.isDirectory(),
+                "'" + sourceDirectory.getAbsolutePath() + "' isn't a directory");
+
+        final List<File> sources = new ArrayList<>();
+        collect(sourceDirectory, destinationType, sources);
+
+        final Map<File, List<File>> sourcesByDestination = new HashMap<>();
+        for (final File source : sources) {
+            final File destination =
+                    destinationOf(sourceDirectory, source, destinationDirectory, destinationType);
+            sourcesByDestination
+                    .computeIfAbsent(destination, ignored -> new ArrayList<>())
+                    .add(source);
+        }
+
+        final List<Conversion> failed = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger done = new AtomicInteger();
+        final Semaphore running = new Semaphore(parallelism);
+        final Executor executor = LightningProviders.asyncExecutor();
+        for (final File source : sources) {
+            final File destination =
+                    destinationOf(sourceDirectory, source, destinationDirectory, destinationType);
+            final List<File> sameDestination = sourcesByDestination.get(destination);
+
+            running.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        Exception error = null;
+                        if (sameDestination.size() > 1) {
+                            error = new LightningValidationException(
+                                    "Several files would be converted to '"
+                                            + destination.getName() + "': " + sameDestination,
+                                    "In: '" + FileUtils.getParentDirPath(destination) + "'");
+                        } else {
+                            try {
+                                convert(source, typeOf(source), destination, destinationType);
+                            } catch (final Exception ex) {
+                                error = ex;
+                            }
+                        }
+                        final Conversion conversion = new Conversion(
+                                source,
+                                destination,
+                                error,
+                                done.incrementAndGet(),
+                                sources.size());
+                        if (error != null) {
+                            failed.add(conversion);
+                        }
+                        if (listener != null) {
+                            listener.accept(conversion);
+                        }
+                    } finally {
+                        running.release();
+                    }
+                });
+            } catch (final RejectedExecutionException ex) {
+                running.release();
+                throw ex;
+            }
+        }
+
+        // Waiting for the last files
+        running.acquireUninterruptibly(parallelism);
+        return new ArrayList<>(failed);
+    }
+
+    /**
+     * Progress of {@link #convertDirectory(File, File, FileType, int, Consumer)} after converting
+     * a file.
+     */
+    @Value
+    public static class Conversion {
+
+        File source;
+        File destination;
+        @Nullable
+        Exception error;
+        int done;
+        int total;
+
+        public boolean isFailed() {
+            return this.error != null;
+        }
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Internal stuff
+    // ----------------------------------------------------------------------------------------------------
+
+    private FileType typeOf(final File file) {
+        final FileType type = typeOrNull(file);
+        Valid.notNull(type, "Unknown type of file '" + file.getName() + "'");
+        return type;
+    }
+
+    @Nullable
+    private FileType typeOrNull(final File file) {
+        return FileType.fromFile(new File(CompressionCodecs.stripExtension(file.getName())));
+    }
+
+    // Same encodings as our FlatFiles use
+    private Reader createReader(final File file, final FileType type) throws IOException {
+        final CompressionCodec codec = CompressionCodecs.forFile(file);
+        final InputStream inputStream = codec == null
+                ? Files.newInputStream(file.toPath())
+                : Compression.of(codec).createInputStream(file);
+        return new BufferedReader(type == FileType.YAML
+                ? new InputStreamReader(inputStream)
+                : new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    private Writer createWriter(
+            final File file,
+            final FileType type,
+            @Nullable final CompressionCodec codec) throws IOException {
+        final OutputStream outputStream = codec == null
+                ? Files.newOutputStream(file.toPath())
+                : Compression.of(codec).createOutputStream(file);
+        return new BufferedWriter(type == FileType.TOML
+                ? new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)
+                : new OutputStreamWriter(outputStream));
+    }
+
+    private DataSource createSource(
+            final File file,
+            final Reader reader,
+            final FileType type) throws IOException {
+        switch (type) {
+            case JSON:
+                return new JsonSource(reader);
+            case YAML:
+                return new YamlSource(reader);
+            default:
+                // TOML can only be read as a whole
+                return new MapSource(TomlManager.read(reader, (int) file.length(), false));
+        }
+    }
+
+    private void write(
+            final DataSource source,
+            final FileType type,
+            final Writer writer) throws IOException {
+        switch (type) {
+            case JSON:
+                JsonSink.write(source, writer);
+                break;
+            case YAML:
+                YamlSink.write(source, writer);
+                break;
+            default:
+                final MapSink sink = new MapSink();
+                source.pipe(sink);
+                TomlManager.write(sink.getResult(), writer);
+        }
+    }
+
+    private void collect(final File directory, final FileType exclude, final List<File> result) {
+        for (final File file : FileUtils.listFiles(directory)) {
+            if (file.isDirectory()) {
+                collect(file, exclude, result);
+                continue;
+            }
+            final FileType type = typeOrNull(file);
+            if (type != null && type != exclude) {
+                result.add(file);
+            }
+        }
+    }
+
+    private File destinationOf(
+            final File sourceDirectory,
+            final File source,
+            final File destinationDirectory,
+            final FileType destinationType) {
+        return new File(
+                destinationDirectory,
+                replaceExtension(
+                        CompressionCodecs.stripExtension(relativePath(sourceDirectory, source)),
+                        destinationType));
+    }
+
+    private String relativePath(final File directory, final File file) {
+        return directory.toPath().relativize(file.toPath()).toString();
+    }
+
+    private String replaceExtension(final String path, final FileType type) {
+        return path.substring(0, path.lastIndexOf('.') + 1) + type.getExtension();
+    }
 }
@@ -0,0 +1,173 @@
+package de.leonhard.storage.util;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * List of ints stored without boxing them.
+ *
+ * <p>The elements are kept in an {@link IntBuffer}, either on the heap or in a direct buffer
+ * outside of it. Elements are only boxed if they are accessed using the methods of {@link
+ * java.util.List}, use {@link #getInt(int)} & {@link #toIntArray()} to avoid that.
+ *
+ * @see NumberArrays
+ */
+public final class IntArrayList extends AbstractList<Integer> implements RandomAccess {
+
+    private final boolean offHeap;
+    private IntBuffer buffer;
+    private int size;
+
+    public IntArrayList(final int capacity, final boolean offHeap) {
+        Valid.checkBoolean(capacity >= 0, "Capacity mustn't be negative");
+        this.offHeap = offHeap;
+        this.buffer = allocate(capacity, offHeap);
+    }
+
+    public static IntArrayList of(final int[] array, final boolean offHeap) {
+        final IntArrayList list = new IntArrayList(array.length, offHeap);
+        list.buffer.put(array, 0, array.length);
+        list.size = array.length;
+        return list;
+    }
+
+    public int getInt(final int index) {
+        checkIndex(index, this.size);
+        return this.buffer.get(index);
+    }
+
+    public int setInt(final int index, final int value) {
+        checkIndex(index, this.size);
+        final int old = this.buffer.get(index);
+        this.buffer.put(index, value);
+        return old;
+    }
+
+    public void addInt(final int value) {
+        ensureCapacity(this.size + 1);
+        this.buffer.put(this.size++, value);
+    }
+
+    public int[] toIntArray() {
+        final int[] array = new int[this.size];
+        final IntBuffer source = this.buffer.duplicate();
+        // Through Buffer: The covariant overrides of Java 9+ don't exist on Java 8
+        ((Buffer) source).position(0);
+        source.get(array, 0, this.size);
+        return array;
+    }
+
+    public boolean isOffHeap() {
+        return this.offHeap;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // List
+    // ----------------------------------------------------------------------------------------------------
+
+    @Override
+    public Integer get(final int index) {
+        return getInt(index);
+    }
+
+    @Override
+    public Integer set(final int index, final Integer element) {
+        return setInt(index, element);
+    }
+
+    @Override
+    public void add(final int index, final Integer element) {
+        checkIndex(index, this.size + 1);
+        ensureCapacity(this.size + 1);
+        for (int i = this.size; i > index; i--) {
+            this.buffer.put(i, this.buffer.get(i - 1));
+        }
+        this.buffer.put(index, element);
+        this.size++;
+        this.modCount++;
+    }
+
+    @Override
+    public Integer remove(final int index) {
+        checkIndex(index, this.size);
+        final int old = this.buffer.get(index);
+        for (int i = index + 1; i < this.size; i++) {
+            this.buffer.put(i - 1, this.buffer.get(i));
+        }
+        this.size--;
+        this.modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        this.size = 0;
+        this.modCount++;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < this.size; i++) {
+            hash = 31 * hash + Integer.hashCode(this.buffer.get(i));
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof IntArrayList)) {
+            return super.equals(obj);
+        }
+        final IntArrayList other = (IntArrayList) obj;
+        if (other.size != this.size) {
+            return false;
+        }
+        for (int i = 0; i < this.size; i++) {
+            if (this.buffer.get(i) != other.buffer.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Internal stuff
+    // ----------------------------------------------------------------------------------------------------
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity <= this.buffer.capacity()) {
+            return;
+        }
+        final int grownCapacity = Math.max(capacity, this.buffer.capacity() * 3 / 2 + 1);
+        final IntBuffer grown = allocate(grownCapacity, this.offHeap);
+        final IntBuffer source = this.buffer.duplicate();
+        ((Buffer) source).position(0);
+        ((Buffer) source).limit(this.size);
+        grown.put(source);
+        this.buffer = grown;
+    }
+
+    private static IntBuffer allocate(final int capacity, final boolean offHeap) {
+        return offHeap
+                ? ByteBuffer.allocateDirect(capacity * Integer.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer()
+                : IntBuffer.allocate(capacity);
+    }
+
+    static void checkIndex(final int index, final int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
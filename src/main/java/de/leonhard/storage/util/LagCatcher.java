@@ -1,65 +1,87 @@
 package de.leonhard.storage.util;
 
+import de.leonhard.storage.internal.metrics.LatencyHistogram;
+import lombok.NonNull;
 import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Utility Class to take benchmarks
+ *
+ * <p>Timings are kept per thread, so many threads can time the same name at once. Every finished
+ * timing is added to the aggregate stats of its name. Timers are reused per thread & name, so timing
+ * doesn't allocate once a name was timed on a thread.
+ *
+ * <pre>{@code
+ * try (LagCatcher.Timer ignored = LagCatcher.time("reload")) {
+ *     config.forceReload();
+ * }
+ * System.out.println(LagCatcher.getStats("reload"));
+ * }</pre>
  */
 @UtilityClass
 public class LagCatcher {
 
-    private final HashMap<String, Long> startTimes = new HashMap<>();
-    private final HashMap<String, Long> stopTimes = new HashMap<>();
+    private final Map<String, LatencyHistogram> stats = new ConcurrentHashMap<>();
+    private final ThreadLocal<Map<String, Timer>> timers = ThreadLocal.withInitial(HashMap::new);
 
-    public void start(final String name) {
-        if (LagCatcher.startTimes.containsKey(name)) {
-            throw new IllegalStateException(("Test is already running for '" + name + "'"));
-        }
-        final long nanoTime = System.nanoTime();
-        LagCatcher.startTimes.put(name, nanoTime);
+    /**
+     * Starts a scoped timing. Closing the returned timer stops it. Timings of the same name may be
+     * nested.
+     */
+    public Timer time(@NonNull final String name) {
+        final Timer timer = timerOf(name);
+        timer.push(System.nanoTime());
+        return timer;
     }
 
-    public void stop(final String name) {
-        if (LagCatcher.stopTimes.containsKey(name)) {
-            throw new IllegalStateException(("No test running for '" + name + "'"));
-        }
-        LagCatcher.stopTimes.put(name, System.nanoTime());
+    public void start(@NonNull final String name) {
+        time(name);
     }
 
-    private void show(final String name) {
-        if (!LagCatcher.startTimes.containsKey(name) || !LagCatcher.stopTimes.containsKey(name)) {
-            throw new IllegalStateException(("No results found for '" + name + "'"));
-        }
-        final Long value = LagCatcher.startTimes.get(name);
-        if (value == null) {
-            return;
-        }
-        final long start = value;
-        final Long value2 = LagCatcher.stopTimes.get(name);
-        if (value2 != null) {
-            final long end = value2;
-            final long took = end - start;
-            System.out.println(
-                    (Object)
-                            (
-                                    "Test '"
-                                            + name
-                                            + "' took "
-                                            + TimeUnit.NANOSECONDS.toMicros(took)
-                                            + " micro-seconds. That's "
-                                            + TimeUnit.NANOSECONDS.toMillis(took)
-                                            + " ms."));
-            LagCatcher.stopTimes.remove(name);
-            LagCatcher.startTimes.remove(name);
-        }
+    public void stop(@NonNull final String name) {
+        stop0(name);
+    }
+
+    public void stopAndShow(@NonNull final String name) {
+        final long took = stop0(name);
+        System.out.println(
+                "Test '"
+                        + name
+                        + "' took "
+                        + TimeUnit.NANOSECONDS.toMicros(took)
+                        + " micro-seconds. That's "
+                        + TimeUnit.NANOSECONDS.toMillis(took)
+                        + " ms.");
+    }
+
+    /**
+     * @return Aggregated timings of the given name or null if it was never timed.
+     */
+    @Nullable
+    public LatencyHistogram getStats(final String name) {
+        return stats.get(name);
+    }
+
+    /**
+     * @return Read-only view of the aggregated timings of all names.
+     */
+    public Map<String, LatencyHistogram> getAllStats() {
+        return Collections.unmodifiableMap(stats);
     }
 
-    public void stopAndShow(final String name) {
-        stop(name);
-        show(name);
+    /**
+     * Resets the aggregated timings. Running timings aren't affected.
+     */
+    public void reset() {
+        stats.values().forEach(LatencyHistogram::reset);
     }
 
     public void runMultipleTimes(final int cycles, final Runnable runnable) {
@@ -70,21 +92,94 @@ public class LagCatcher {
             nanosTook += System.nanoTime() - nanoTime;
         }
         System.out.println(
-                (Object)
-                        (
-                                "Average time: "
-                                        + TimeUnit.NANOSECONDS.toMicros(nanosTook / cycles)
-                                        + " micros - "
-                                        + TimeUnit.NANOSECONDS.toMillis(nanosTook / cycles)
-                                        + " ms."));
+                "Average time: "
+                        + TimeUnit.NANOSECONDS.toMicros(nanosTook / cycles)
+                        + " micros - "
+                        + TimeUnit.NANOSECONDS.toMillis(nanosTook / cycles)
+                        + " ms.");
         System.out.println(
-                (Object)
-                        (
-                                "Test took: "
-                                        + TimeUnit.NANOSECONDS.toMicros(nanosTook)
-                                        + " micros "
-                                        + "- "
-                                        + TimeUnit.NANOSECONDS.toMillis(nanosTook)
-                                        + " ms"));
+                "Test took: "
+                        + TimeUnit.NANOSECONDS.toMicros(nanosTook)
+                        + " micros "
+                        + "- "
+                        + TimeUnit.NANOSECONDS.toMillis(nanosTook)
+                        + " ms");
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Internal stuff
+    // ----------------------------------------------------------------------------------------------------
+
+    private long stop0(final String name) {
+        final Timer timer = timers.get().get(name);
+        if (timer == null || timer.depth == 0) {
+            throw new IllegalStateException("No test running for '" + name + "'");
+        }
+        return timer.stop();
+    }
+
+    private Timer timerOf(final String name) {
+        final Map<String, Timer> threadTimers = timers.get();
+        Timer timer = threadTimers.get(name);
+        if (timer == null) {
+            timer = new Timer(name, histogramOf(name));
+            threadTimers.put(name, timer);
+        }
+        return timer;
+    }
+
+    private LatencyHistogram histogramOf(final String name) {
+        final LatencyHistogram existing = stats.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        final LatencyHistogram created = new LatencyHistogram();
+        final LatencyHistogram raced = stats.putIfAbsent(name, created);
+        return raced == null ? created : raced;
+    }
+
+    /**
+     * A running timing. Only usable on the thread which started it.
+     */
+    public static final class Timer implements AutoCloseable {
+
+        private final String name;
+        private final LatencyHistogram histogram;
+        // Start times of nested timings
+        private long[] starts = new long[2];
+        private int depth;
+
+        private Timer(final String name, final LatencyHistogram histogram) {
+            this.name = name;
+            this.histogram = histogram;
+        }
+
+        private void push(final long start) {
+            if (depth == starts.length) {
+                starts = Arrays.copyOf(starts, depth * 2);
+            }
+            starts[depth++] = start;
+        }
+
+        private long stop() {
+            final long took = System.nanoTime() - starts[--depth];
+            histogram.record(took);
+            return took;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Stops the innermost running timing of this name.
+         */
+        @Override
+        public void close() {
+            if (depth == 0) {
+                throw new IllegalStateException("No test running for '" + name + "'");
+            }
+            stop();
+        }
     }
 }
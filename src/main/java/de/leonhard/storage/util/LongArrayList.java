@@ -0,0 +1,167 @@
+package de.leonhard.storage.util;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * List of longs stored without boxing them.
+ *
+ * <p>The elements are kept in a {@link LongBuffer}, either on the heap or in a direct buffer
+ * outside of it. Elements are only boxed if they are accessed using the methods of {@link
+ * java.util.List}, use {@link #getLong(int)} & {@link #toLongArray()} to avoid that.
+ *
+ * @see NumberArrays
+ */
+public final class LongArrayList extends AbstractList<Long> implements RandomAccess {
+
+    private final boolean offHeap;
+    private LongBuffer buffer;
+    private int size;
+
+    public LongArrayList(final int capacity, final boolean offHeap) {
+        Valid.checkBoolean(capacity >= 0, "Capacity mustn't be negative");
+        this.offHeap = offHeap;
+        this.buffer = allocate(capacity, offHeap);
+    }
+
+    public static LongArrayList of(final long[] array, final boolean offHeap) {
+        final LongArrayList list = new LongArrayList(array.length, offHeap);
+        list.buffer.put(array, 0, array.length);
+        list.size = array.length;
+        return list;
+    }
+
+    public long getLong(final int index) {
+        IntArrayList.checkIndex(index, this.size);
+        return this.buffer.get(index);
+    }
+
+    public long setLong(final int index, final long value) {
+        IntArrayList.checkIndex(index, this.size);
+        final long old = this.buffer.get(index);
+        this.buffer.put(index, value);
+        return old;
+    }
+
+    public void addLong(final long value) {
+        ensureCapacity(this.size + 1);
+        this.buffer.put(this.size++, value);
+    }
+
+    public long[] toLongArray() {
+        final long[] array = new long[this.size];
+        final LongBuffer source = this.buffer.duplicate();
+        // Through Buffer: The covariant overrides of Java 9+ don't exist on Java 8
+        ((Buffer) source).position(0);
+        source.get(array, 0, this.size);
+        return array;
+    }
+
+    public boolean isOffHeap() {
+        return this.offHeap;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // List
+    // ----------------------------------------------------------------------------------------------------
+
+    @Override
+    public Long get(final int index) {
+        return getLong(index);
+    }
+
+    @Override
+    public Long set(final int index, final Long element) {
+        return setLong(index, element);
+    }
+
+    @Override
+    public void add(final int index, final Long element) {
+        IntArrayList.checkIndex(index, this.size + 1);
+        ensureCapacity(this.size + 1);
+        for (int i = this.size; i > index; i--) {
+            this.buffer.put(i, this.buffer.get(i - 1));
+        }
+        this.buffer.put(index, element);
+        this.size++;
+        this.modCount++;
+    }
+
+    @Override
+    public Long remove(final int index) {
+        IntArrayList.checkIndex(index, this.size);
+        final long old = this.buffer.get(index);
+        for (int i = index + 1; i < this.size; i++) {
+            this.buffer.put(i - 1, this.buffer.get(i));
+        }
+        this.size--;
+        this.modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        this.size = 0;
+        this.modCount++;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < this.size; i++) {
+            hash = 31 * hash + Long.hashCode(this.buffer.get(i));
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof LongArrayList)) {
+            return super.equals(obj);
+        }
+        final LongArrayList other = (LongArrayList) obj;
+        if (other.size != this.size) {
+            return false;
+        }
+        for (int i = 0; i < this.size; i++) {
+            if (this.buffer.get(i) != other.buffer.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Internal stuff
+    // ----------------------------------------------------------------------------------------------------
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity <= this.buffer.capacity()) {
+            return;
+        }
+        final int grownCapacity = Math.max(capacity, this.buffer.capacity() * 3 / 2 + 1);
+        final LongBuffer grown = allocate(grownCapacity, this.offHeap);
+        final LongBuffer source = this.buffer.duplicate();
+        ((Buffer) source).position(0);
+        ((Buffer) source).limit(this.size);
+        grown.put(source);
+        this.buffer = grown;
+    }
+
+    private static LongBuffer allocate(final int capacity, final boolean offHeap) {
+        return offHeap
+                ? ByteBuffer.allocateDirect(capacity * Long.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asLongBuffer()
+                : LongBuffer.allocate(capacity);
+    }
+}
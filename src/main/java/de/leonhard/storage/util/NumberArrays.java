@@ -0,0 +1,203 @@
+package de.leonhard.storage.util;
+
+import de.leonhard.storage.internal.provider.LightningProviders;
+import de.leonhard.storage.internal.provider.MapProvider;
+import lombok.experimental.UtilityClass;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stores large numeric lists as primitive arrays, see {@link IntArrayList}, {@link LongArrayList} &
+ * {@link DoubleArrayList}.
+ *
+ * <p>Only lists of which all elements have the same type are converted, so the elements returned
+ * by the converted list are equal to the ones of the original list. The only exception are
+ * decimals read from JSON, which are read as {@link BigDecimal}s or integers if they have no
+ * fraction. They are converted to doubles if that doesn't lose precision.
+ *
+ * <p>Lists of strings are never converted, even if they look numeric like the lists read from YAML.
+ * {@link #toIntArray(Object)} & co. parse them when they are requested as arrays.
+ */
+@UtilityClass
+public class NumberArrays {
+
+    private final int NONE = 0;
+    private final int INT = 1;
+    private final int LONG = 2;
+    private final int DOUBLE = 3;
+    // Longs up to this are exactly representable as doubles
+    private final long MAX_EXACT_DOUBLE = 1L << 53;
+
+    /**
+     * Converts primitive arrays & homogeneous numeric lists which are at least {@link
+     * MapProvider#getPrimitiveArrayThreshold()} long. Lists of such lists are converted as well.
+     *
+     * @return The converted value or the value itself if it can't be converted.
+     */
+    public Object compact(final Object value) {
+        if (value instanceof List) {
+            return compact((List<?>) value);
+        }
+        final boolean offHeap = LightningProviders.mapProvider().isAllocatingOffHeap();
+        if (value instanceof int[]) {
+            return IntArrayList.of((int[]) value, offHeap);
+        } else if (value instanceof long[]) {
+            return LongArrayList.of((long[]) value, offHeap);
+        } else if (value instanceof double[]) {
+            return DoubleArrayList.of((double[]) value, offHeap);
+        }
+        return value;
+    }
+
+    public int[] toIntArray(final Object raw) {
+        if (raw instanceof IntArrayList) {
+            return ((IntArrayList) raw).toIntArray();
+        } else if (raw instanceof int[]) {
+            return ((int[]) raw).clone();
+        } else if (!(raw instanceof Collection)) {
+            return new int[0];
+        }
+        final Collection<?> collection = (Collection<?>) raw;
+        final int[] array = new int[collection.size()];
+        int index = 0;
+        for (final Object element : collection) {
+            array[index++] = ClassWrapper.INTEGER.getInt(element);
+        }
+        return array;
+    }
+
+    public long[] toLongArray(final Object raw) {
+        if (raw instanceof LongArrayList) {
+            return ((LongArrayList) raw).toLongArray();
+        } else if (raw instanceof long[]) {
+            return ((long[]) raw).clone();
+        } else if (!(raw instanceof Collection)) {
+            return new long[0];
+        }
+        final Collection<?> collection = (Collection<?>) raw;
+        final long[] array = new long[collection.size()];
+        int index = 0;
+        for (final Object element : collection) {
+            array[index++] = ClassWrapper.LONG.getLong(element);
+        }
+        return array;
+    }
+
+    public double[] toDoubleArray(final Object raw) {
+        if (raw instanceof DoubleArrayList) {
+            return ((DoubleArrayList) raw).toDoubleArray();
+        } else if (raw instanceof double[]) {
+            return ((double[]) raw).clone();
+        } else if (!(raw instanceof Collection)) {
+            return new double[0];
+        }
+        final Collection<?> collection = (Collection<?>) raw;
+        final double[] array = new double[collection.size()];
+        int index = 0;
+        for (final Object element : collection) {
+            array[index++] = ClassWrapper.DOUBLE.getDouble(element);
+        }
+        return array;
+    }
+
+    // ----------------------------------------------------------------------------------------------------
+    // Internal stuff
+    // ----------------------------------------------------------------------------------------------------
+
+    private List<?> compact(final List<?> list) {
+        if (list.isEmpty()
+                || list instanceof IntArrayList
+                || list instanceof LongArrayList
+                || list instanceof DoubleArrayList) {
+            return list;
+        }
+
+        if (list.get(0) instanceof List) {
+            return compactNested(list);
+        }
+
+        final MapProvider mapProvider = LightningProviders.mapProvider();
+        final int threshold = mapProvider.getPrimitiveArrayThreshold();
+        if (threshold <= 0 || list.size() < threshold) {
+            return list;
+        }
+
+        final int type = typeOf(list);
+        final boolean offHeap = mapProvider.isAllocatingOffHeap();
+        if (type == INT) {
+            final IntArrayList ints = new IntArrayList(list.size(), offHeap);
+            for (final Object element : list) {
+                ints.addInt((Integer) element);
+            }
+            return ints;
+        } else if (type == LONG) {
+            final LongArrayList longs = new LongArrayList(list.size(), offHeap);
+            for (final Object element : list) {
+                longs.addLong((Long) element);
+            }
+            return longs;
+        } else if (type == DOUBLE) {
+            final DoubleArrayList doubles = new DoubleArrayList(list.size(), offHeap);
+            for (final Object element : list) {
+                doubles.addDouble(((Number) element).doubleValue());
+            }
+            return doubles;
+        }
+        return list;
+    }
+
+    // Copies the list if one of its sublists was converted
+    private List<?> compactNested(final List<?> list) {
+        List<Object> copy = null;
+        for (int i = 0; i < list.size(); i++) {
+            final Object element = list.get(i);
+            final Object compacted = element instanceof List
+                    ? compact((List<?>) element)
+                    : element;
+            if (compacted != element && copy == null) {
+                copy = new ArrayList<>(list.subList(0, i));
+            }
+            if (copy != null) {
+                copy.add(compacted);
+            }
+        }
+        return copy == null ? list : copy;
+    }
+
+    private int typeOf(final List<?> list) {
+        boolean ints = false;
+        boolean longs = false;
+        boolean decimals = false;
+        for (final Object element : list) {
+            if (element instanceof Integer) {
+                ints = true;
+            } else if (element instanceof Long) {
+                // Longs can only be mixed with decimals if they fit into a double
+                longs = true;
+                final long value = (Long) element;
+                if (Math.abs(value) > MAX_EXACT_DOUBLE) {
+                    return NONE;
+                }
+            } else if (element instanceof Double
+                    || element instanceof BigDecimal && isExactDouble((BigDecimal) element)) {
+                decimals = true;
+            } else {
+                return NONE;
+            }
+        }
+        if (decimals) {
+            // JSON writes 1.0 as 1, so integers mixed with decimals were doubles as well
+            return DOUBLE;
+        }
+        return ints == longs ? NONE : ints ? INT : LONG;
+    }
+
+    // Whether the double is written like the decimal it was read from
+    private boolean isExactDouble(final BigDecimal decimal) {
+        final double value = decimal.doubleValue();
+        return !Double.isInfinite(value) && BigDecimal.valueOf(value).compareTo(decimal) == 0;
+    }
+}
@@ -3,7 +3,6 @@ package de.leonhard.storage.util;
 import lombok.experimental.UtilityClass;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -24,53 +23,49 @@ public class YamlUtils {
     }
 
     public List<String> getFooterFromLines(final List<String> lines) {
-        final List<String> result = new ArrayList<>();
-        Collections.reverse(lines);
-        for (final String line : lines) {
-            if (!line.startsWith("#")) {
-                Collections.reverse(result);
-                return result;
-            }
-            result.add(line);
-        }
-        Collections.reverse(result);
-        return result;
+        return new ArrayList<>(lines.subList(footerStart(lines), lines.size()));
     }
 
     public List<String> getHeaderFromLines(final List<String> lines) {
-        final List<String> result = new ArrayList<>();
-
-        for (final String line : lines) {
-            if (!line.startsWith("#")) {
-                return result;
-            }
-            result.add(line);
-        }
-        return result;
+        return new ArrayList<>(lines.subList(0, headerEnd(lines)));
     }
 
     /**
      * @return List of comments that don't belong to header or footer
      */
     public List<String> getPureCommentsFromLines(final List<String> lines) {
-        final List<String> comments = getCommentsFromLines(lines);
-        final List<String> header = getHeaderFromLines(lines);
-        final List<String> footer = getFooterFromLines(lines);
-
-        comments.removeAll(header);
-        comments.removeAll(footer);
-
-        return comments;
+        final int headerEnd = headerEnd(lines);
+        return getCommentsFromLines(
+                lines.subList(headerEnd, Math.max(headerEnd, footerStart(lines))));
     }
 
     public List<String> getLinesWithoutFooterAndHeaderFromLines(final List<String> lines) {
-        final List<String> header = getHeaderFromLines(lines);
-        final List<String> footer = getFooterFromLines(lines);
+        final int headerEnd = headerEnd(lines);
+        return new ArrayList<>(lines.subList(headerEnd, Math.max(headerEnd, footerStart(lines))));
+    }
 
-        lines.removeAll(header);
-        lines.removeAll(footer);
+    /**
+     * @return Index of the first line after the header.
+     */
+    public int headerEnd(final List<String> lines) {
+        for (int i = 0; i < lines.size(); i++) {
+            if (!lines.get(i).startsWith("#")) {
+                return i;
+            }
+        }
+        return lines.size();
+    }
 
-        return lines;
+    /**
+     * @return Index of the first line of the footer.
+     */
+    public int footerStart(final List<String> lines) {
+        for (int i = lines.size() - 1; i >= 0; i--) {
+            if (!lines.get(i).startsWith("#")) {
+                return i + 1;
+            }
+        }
+        return 0;
     }
 
     public List<String> getKeys(final List<String> lines) {
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -34,6 +35,15 @@ class ConfigTest {
     @Test
     void testGetDataType() {
         Assertions.assertEquals(config.getDataType(), DataType.SORTED);
+        Assertions.assertEquals(DataType.SORTED, new Config(config.getFile()).getDataType());
+
+        // Configs of the builder keep the order of their keys as well
+        final Config built = LightningBuilder.fromPath("BuilderExample", "").createConfig();
+        final List<String> keys = Arrays.asList("zeta", "alpha", "mid", "beta", "delta", "kappa");
+        keys.forEach(key -> built.set(key, key));
+        Assertions.assertEquals(DataType.SORTED, built.getDataType());
+        Assertions.assertEquals(keys, new ArrayList<>(built.singleLayerKeySet()));
+        Assertions.assertTrue(built.getFile().delete());
     }
 
     @Test
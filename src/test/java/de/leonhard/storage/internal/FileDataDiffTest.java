@@ -0,0 +1,92 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.internal.settings.DataType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+class FileDataDiffTest {
+
+    @Test
+    void testDiff() {
+        final FileData before = new FileData(new HashMap<>(), DataType.SORTED);
+        before.insert("a", 1);
+        before.insert("b.c", 2);
+        before.insert("b.d", 3);
+        before.insert("e.f", 4);
+        before.insert("g.h", 5);
+
+        final FileData after = before.copy();
+        after.insert("a", 10);
+        after.remove("b.d");
+        after.insert("b.x", 6);
+        after.remove("e.f");
+        after.insert("i.j", 7);
+
+        final FileDataDiff diff = FileDataDiff.between(before, after);
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("b.x", "i")), diff.getAdded());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("b.d", "e")), diff.getRemoved());
+        Assertions.assertEquals(Collections.singleton("a"), diff.getChanged());
+
+        Assertions.assertTrue(diff.affects("b"));
+        Assertions.assertTrue(diff.affects("e.f"));
+        Assertions.assertFalse(diff.affects("g"));
+        Assertions.assertFalse(diff.affects("b.c"));
+        Assertions.assertTrue(FileDataDiff.between(after, after.snapshot()).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLoadDataAndDiff() {
+        final FileData fileData = new FileData(new HashMap<>(), DataType.UNSORTED);
+        fileData.insert("a.b", 1);
+        fileData.insert("a.c", 2);
+
+        final FileData changed = fileData.copy();
+        changed.insert("a.c", 3);
+        Assertions.assertNotEquals(
+                ((DataNode) fileData.toMap()).structuralHash(),
+                ((DataNode) changed.toMap()).structuralHash());
+
+        final FileDataDiff diff = fileData.loadDataAndDiff(changed.toMap());
+        Assertions.assertEquals(Collections.singleton("a.c"), diff.getChanged());
+        Assertions.assertEquals(3, fileData.get("a.c"));
+
+        // Lists changed in place after hashing are still found
+        fileData.insert("l.list", new ArrayList<>(Arrays.asList(1, 2)));
+        final Map<String, Object> loaded = fileData.toMutableMap();
+        ((Map<String, Object>) loaded.get("l")).put("list", Arrays.asList(1, 2));
+        ((DataNode) fileData.toMap()).structuralHash();
+        ((List<Object>) fileData.get("l.list")).set(1, 3);
+        Assertions.assertEquals(
+                Collections.singleton("l.list"),
+                fileData.loadDataAndDiff(loaded).getChanged());
+    }
+
+    @Test
+    void testCollidingHashes() {
+        // "Aa" & "BB" have the same hashCode(), as have 1 & 1L
+        Assertions.assertEquals("Aa".hashCode(), "BB".hashCode());
+        final FileData fileData = new FileData(new HashMap<>(), DataType.SORTED);
+        fileData.insert("users.u1.name", "Aa");
+        fileData.insert("users.u1.id", 1);
+        final ValueIndex names = fileData.createIndex("users.*.name");
+
+        final FileData changed = fileData.copy();
+        changed.insert("users.u1.name", "BB");
+        changed.insert("users.u1.id", 1L);
+        Assertions.assertEquals(
+                ((DataNode) fileData.toMap()).structuralHash(),
+                ((DataNode) changed.toMap()).structuralHash());
+        Assertions.assertFalse(
+                ((DataNode) fileData.toMap()).sameContent((DataNode) changed.toMap()));
+        Assertions.assertEquals(
+                new HashSet<>(Arrays.asList("users.u1.name", "users.u1.id")),
+                FileDataDiff.between(fileData, changed).getChanged());
+
+        fileData.loadDataAndDiff(changed.toMutableMap());
+        Assertions.assertTrue(names.get("Aa").isEmpty());
+        Assertions.assertEquals(Collections.singleton("users.u1.name"), names.get("BB"));
+    }
+}
@@ -0,0 +1,134 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.Yaml;
+import de.leonhard.storage.internal.exceptions.LightningValidationException;
+import de.leonhard.storage.internal.settings.DataType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+class FileDataQueryTest {
+
+    FileData fileData;
+
+    @BeforeEach
+    void setUp() {
+        fileData = new FileData(new HashMap<>(), DataType.SORTED);
+        fileData.insert("users.alex.balance", 100);
+        fileData.insert("users.alex.homes.home.x", 1);
+        fileData.insert("users.steve.balance", 2500);
+        fileData.insert("users.steve.name", "Steve");
+        fileData.insert("users.notch", "banned");
+        fileData.insert("admins.jeb.balance", 5000);
+    }
+
+    @Test
+    void testPaths() {
+        Assertions.assertEquals(
+                set("users.alex.balance", "users.steve.balance"),
+                new HashSet<>(fileData.query().path("users.*.balance").keys()));
+        Assertions.assertEquals(
+                set("users.alex.balance", "users.steve.balance", "admins.jeb.balance"),
+                new HashSet<>(fileData.query().path("*.*.balance").keys()));
+        Assertions.assertEquals(
+                set("users.alex.balance", "users.alex.homes.home.x"),
+                new HashSet<>(fileData.query().path("users.alex.**").keys()));
+        Assertions.assertEquals(
+                Collections.singletonMap("users.steve.name", "Steve"),
+                fileData.query().path("users.steve.name").toMap());
+        // Layers aren't matched
+        Assertions.assertEquals(0, fileData.query().path("users.alex.homes").count());
+        Assertions.assertEquals(0, fileData.query().path("users.notch.*").count());
+        Assertions.assertEquals(0, fileData.query().path("missing.*").count());
+        Assertions.assertEquals(fileData.leafCount(), fileData.query().count());
+
+        final FileDataQuery query = fileData.query();
+        Assertions.assertThrows(LightningValidationException.class, () -> query.path("**.a"));
+        Assertions.assertThrows(LightningValidationException.class, () -> query.path("a..b"));
+    }
+
+    @Test
+    void testPredicates() {
+        Assertions.assertEquals(
+                set("users.steve.balance", "admins.jeb.balance"),
+                new HashSet<>(fileData.query()
+                        .where(Integer.class, balance -> balance > 1000)
+                        .keys()));
+        Assertions.assertEquals(
+                Collections.singletonList("users.steve.balance"),
+                fileData.query()
+                        .path("users.*.balance")
+                        .where(Long.class, balance -> balance > 1000)
+                        .where(balance -> !balance.equals(5000))
+                        .keys());
+        Assertions.assertEquals(
+                set("users.steve.name", "users.notch"),
+                new HashSet<>(fileData.query().where(String.class, name -> true).keys()));
+
+        // Everything is a string in YAML
+        final Yaml yaml = new Yaml("FileDataQuery", "");
+        try {
+            yaml.set("users.alex.balance", 100);
+            yaml.set("users.alex.admin", true);
+            yaml.set("users.steve.balance", "lots");
+            yaml.forceReload();
+            Assertions.assertEquals(
+                    Collections.singletonList("users.alex.balance"),
+                    yaml.query().where(Integer.class, balance -> balance == 100).keys());
+            Assertions.assertEquals(
+                    Collections.singletonList("users.alex.admin"),
+                    yaml.query().where(Boolean.class, admin -> admin).keys());
+        } finally {
+            Assertions.assertTrue(yaml.getFile().delete());
+        }
+    }
+
+    @Test
+    void testParallel() {
+        final FileData large = new FileData(new HashMap<>(), DataType.UNSORTED);
+        for (int i = 0; i < 10_000; i++) {
+            large.insert("users.user" + i + ".balance", i);
+            large.insert("users.user" + i + ".name", "user" + i);
+        }
+        final Set<String> sequential = new HashSet<>(large.query()
+                .path("users.*.balance")
+                .where(Integer.class, balance -> balance % 7 == 0)
+                .keys());
+        final List<String> parallel = large.query()
+                .path("users.*.balance")
+                .where(Integer.class, balance -> balance % 7 == 0)
+                .parallel()
+                .keys();
+        Assertions.assertEquals(1429, sequential.size());
+        Assertions.assertEquals(sequential.size(), parallel.size());
+        Assertions.assertEquals(sequential, new HashSet<>(parallel));
+        Assertions.assertEquals(20_000, large.query().parallel().count());
+    }
+
+    @Test
+    void testSnapshot() {
+        final Iterator<Map.Entry<String, Object>> iterator = fileData.query()
+                .path("users.*.balance")
+                .stream()
+                .iterator();
+        Assertions.assertTrue(iterator.hasNext());
+        // Changes after the query started aren't visible
+        fileData.insert("users.zed.balance", 1);
+        fileData.remove("users.steve");
+        final List<String> keys = new ArrayList<>();
+        iterator.forEachRemaining(entry -> keys.add(entry.getKey()));
+        Assertions.assertEquals(set("users.alex.balance", "users.steve.balance"), new HashSet<>(keys));
+        Assertions.assertEquals(
+                set("users.alex.balance", "users.zed.balance"),
+                fileData.query().path("users.*.balance").stream()
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toSet()));
+    }
+
+    private static Set<String> set(final String... keys) {
+        return new HashSet<>(Arrays.asList(keys));
+    }
+}
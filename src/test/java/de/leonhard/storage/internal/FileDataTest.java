@@ -0,0 +1,256 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.internal.provider.CompactMapProvider;
+import de.leonhard.storage.internal.provider.LightningProviders;
+import de.leonhard.storage.internal.settings.DataType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+class FileDataTest {
+
+    FileData fileData;
+
+    @BeforeEach
+    void setUp() {
+        fileData = new FileData(new HashMap<>(), DataType.SORTED);
+        fileData.insert("a", 1);
+        fileData.insert("b.c", 2);
+        fileData.insert("b.d.e", 3);
+        fileData.insert("b.d.f", 4);
+    }
+
+    @Test
+    void testKeySet() {
+        Assertions.assertEquals(
+                new HashSet<>(Arrays.asList("a", "b.c", "b.d.e", "b.d.f")),
+                new HashSet<>(fileData.keySet()));
+        Assertions.assertEquals(4, fileData.keySet().size());
+        Assertions.assertTrue(fileData.keySet().contains("b.d.e"));
+        Assertions.assertFalse(fileData.keySet().contains("b.d"));
+        Assertions.assertEquals(
+                new HashSet<>(Arrays.asList("c", "d.e", "d.f")),
+                new HashSet<>(fileData.keySet("b")));
+        Assertions.assertTrue(fileData.keySet("a").isEmpty());
+
+        // Iterators walk the data as it was when they were created
+        final Set<String> keys = fileData.keySet();
+        for (final String key : keys) {
+            fileData.remove(key);
+            fileData.insert(key + "x", 0);
+        }
+        Assertions.assertEquals(
+                new HashSet<>(Arrays.asList("ax", "b.cx", "b.d.ex", "b.d.fx")),
+                new HashSet<>(keys));
+        for (final String key : fileData.keySet("b")) {
+            fileData.remove("b." + key);
+        }
+        Assertions.assertEquals(Collections.singleton("ax"), new HashSet<>(keys));
+    }
+
+    @Test
+    void testEntrySet() {
+        final Map<String, Object> entries = new HashMap<>();
+        for (final Map.Entry<String, Object> entry : fileData.entrySet()) {
+            entries.put(entry.getKey(), entry.getValue());
+        }
+        Assertions.assertEquals(3, entries.get("b.d.e"));
+        Assertions.assertEquals(4, entries.size());
+
+        final Map<String, Object> leafs = new HashMap<>();
+        fileData.forEachLeaf(leafs::put);
+        Assertions.assertEquals(entries, leafs);
+
+        Assertions.assertEquals(
+                Arrays.asList("b.d.e", "b.d.f"),
+                fileData.stream()
+                        .map(Map.Entry::getKey)
+                        .filter(key -> key.startsWith("b.d."))
+                        .sorted()
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void testSizes() {
+        // a, b, b.c, b.d, b.d.e, b.d.f
+        Assertions.assertEquals(6, fileData.size());
+        Assertions.assertEquals(4, fileData.size("b"));
+        Assertions.assertEquals(2, fileData.size("b.d"));
+        Assertions.assertEquals(0, fileData.size("a"));
+        Assertions.assertEquals(4, fileData.leafCount());
+        Assertions.assertEquals(3, fileData.leafCount("b"));
+        Assertions.assertEquals(1, fileData.leafCount("a"));
+        Assertions.assertEquals(0, fileData.leafCount("x"));
+
+        // Replacing a value with a layer
+        fileData.insert("a.x.y", 5);
+        Assertions.assertEquals(8, fileData.size());
+        Assertions.assertEquals(4, fileData.leafCount());
+
+        // Replacing a layer with a value
+        fileData.insert("b.d", Collections.singletonMap("g", 6));
+        Assertions.assertEquals(2, fileData.leafCount("b"));
+        Assertions.assertEquals(3, fileData.size("b"));
+
+        // Removing the last value of a layer removes the layer too
+        fileData.remove("a.x.y");
+        Assertions.assertFalse(fileData.containsKey("a"));
+        Assertions.assertEquals(4, fileData.size());
+        Assertions.assertEquals(2, fileData.leafCount());
+
+        fileData.remove("missing.key");
+        Assertions.assertEquals(2, fileData.leafCount());
+    }
+
+    @Test
+    void testSnapshot() {
+        final FileData snapshot = fileData.snapshot();
+        fileData.insert("x", 5);
+        // Unchanged layers are shared
+        Assertions.assertSame(snapshot.get("b"), fileData.get("b"));
+
+        fileData.insert("b.d.e", 30);
+        fileData.remove("b.c");
+
+        Assertions.assertEquals(3, snapshot.get("b.d.e"));
+        Assertions.assertEquals(2, snapshot.get("b.c"));
+        Assertions.assertFalse(snapshot.containsKey("x"));
+        Assertions.assertEquals(4, snapshot.leafCount());
+        Assertions.assertEquals(30, fileData.get("b.d.e"));
+        Assertions.assertEquals(4, fileData.leafCount());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> snapshot.insert("y", 1));
+
+        fileData.restore(snapshot);
+        Assertions.assertEquals(3, fileData.get("b.d.e"));
+        fileData.insert("b.d.e", 31);
+        Assertions.assertEquals(3, snapshot.get("b.d.e"));
+    }
+
+    @Test
+    void testBorrowedSnapshot() {
+        fileData.release(fileData.borrowSnapshot());
+        final Map<String, Object> root = fileData.toMap();
+        fileData.insert("a", 10);
+        // Nothing was copied
+        Assertions.assertSame(root, fileData.toMap());
+
+        final FileData borrowed = fileData.borrowSnapshot();
+        fileData.insert("b.c", 20);
+        Assertions.assertEquals(2, borrowed.get("b.c"));
+        fileData.release(borrowed);
+
+        // Snapshots taken while another one is borrowed stay untouched
+        final FileData other = fileData.borrowSnapshot();
+        final FileData snapshot = fileData.snapshot();
+        fileData.release(other);
+        fileData.insert("a", 11);
+        fileData.insert("b.d.e", 30);
+        Assertions.assertEquals(10, snapshot.get("a"));
+        Assertions.assertEquals(3, snapshot.get("b.d.e"));
+        Assertions.assertEquals(30, fileData.get("b.d.e"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMutableMap() {
+        final Map<String, Object> map = fileData.toMutableMap();
+        Assertions.assertEquals(fileData.toMap(), map);
+        Assertions.assertThrows(
+                UnsupportedOperationException.class,
+                () -> fileData.toMap().put("x", 1));
+
+        map.put("x", 1);
+        ((Map<String, Object>) map.get("b")).put("c", 20);
+        Assertions.assertFalse(fileData.containsKey("x"));
+        Assertions.assertEquals(2, fileData.get("b.c"));
+        Assertions.assertEquals(4, fileData.leafCount());
+    }
+
+    @Test
+    void testCompactMapProvider() {
+        LightningProviders.mapProvider(new CompactMapProvider());
+        try {
+            final Map<String, Object> first = new HashMap<>();
+            first.put(new String("world"), "a");
+            final Map<String, Object> second = new HashMap<>();
+            second.put(new String("world"), "b");
+            final Map<String, Object> data = new HashMap<>();
+            data.put("first", first);
+            data.put("second", second);
+
+            final FileData compact = new FileData(data, DataType.UNSORTED);
+            Assertions.assertEquals("b", compact.get("second.world"));
+            Assertions.assertSame(
+                    ((Map<?, ?>) compact.get("first")).keySet().iterator().next(),
+                    ((Map<?, ?>) compact.get("second")).keySet().iterator().next());
+        } finally {
+            LightningProviders.mapProvider(null);
+        }
+    }
+
+    @Test
+    void testDataTypes() {
+        final Map<DataType, Class<?>> expected = new EnumMap<>(DataType.class);
+        expected.put(DataType.UNSORTED, HashMap.class);
+        expected.put(DataType.SORTED, LinkedHashMap.class);
+        expected.put(DataType.NATURAL, TreeMap.class);
+        expected.put(DataType.CONCURRENT, java.util.concurrent.ConcurrentHashMap.class);
+
+        for (final Map.Entry<DataType, Class<?>> entry : expected.entrySet()) {
+            final Map<String, Object> nested = new HashMap<>();
+            nested.put("c", 1);
+            final FileData data = new FileData(Collections.singletonMap("b", nested), entry.getKey());
+            data.insert("a.x.y", 2);
+
+            // Every layer uses the map of the DataType
+            Assertions.assertEquals(entry.getValue(), ((DataNode) data.toMap()).entries.getClass());
+            Assertions.assertEquals(entry.getValue(), ((DataNode) data.get("b")).entries.getClass());
+            Assertions.assertEquals(entry.getValue(), ((DataNode) data.get("a.x")).entries.getClass());
+        }
+
+        final FileData natural = new FileData(new HashMap<>(), DataType.NATURAL);
+        natural.insert("c", 1);
+        natural.insert("a", 2);
+        natural.insert("b", 3);
+        Assertions.assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(natural.singleLayerKeySet()));
+
+        final FileData concurrent = new FileData(new HashMap<>(), DataType.CONCURRENT);
+        concurrent.insert("a", 1);
+        concurrent.insert("a", null);
+        Assertions.assertFalse(concurrent.containsKey("a"));
+    }
+
+    @Test
+    void testKeyIndex() {
+        Assertions.assertEquals(Arrays.asList("b.d.e", "b.d.f"), new ArrayList<>(fileData.keys("b.d")));
+        fileData.setKeyIndexed(true);
+        final NavigableSet<String> keys = fileData.keys("b.");
+        Assertions.assertEquals(Arrays.asList("b.c", "b.d.e", "b.d.f"), new ArrayList<>(keys));
+
+        fileData.insert("b.d", 5);
+        fileData.insert("a.x.y", 6);
+        fileData.insert("b.g", Collections.singletonMap("h", Collections.singletonMap("i", 7)));
+        fileData.putAll(Collections.singletonMap("c", 8));
+        fileData.insert("players.abc", 9);
+        fileData.insert("players.abd", 10);
+        fileData.insert("players.b", 11);
+        fileData.remove("b.g.h");
+        // Views of the index follow the changes
+        Assertions.assertEquals(Arrays.asList("b.c", "b.d"), new ArrayList<>(keys));
+        Assertions.assertEquals(new TreeSet<>(fileData.keySet()), fileData.keys(""));
+
+        Assertions.assertEquals(Arrays.asList("players.abc", "players.abd"), new ArrayList<>(fileData.keys("players.ab")));
+        Assertions.assertEquals(Arrays.asList("b.d", "c"), new ArrayList<>(fileData.keyRange("b.d", "players")));
+        Assertions.assertTrue(fileData.keyRange("z", "a").isEmpty());
+        Assertions.assertEquals(Arrays.asList("players.abc", "players.abd"), fileData.keys("players.", null, 2));
+        Assertions.assertEquals(Collections.singletonList("players.b"), fileData.keys("players.", "players.abd", 2));
+
+        fileData.loadData(Collections.singletonMap("x", Collections.singletonMap("y", 1)));
+        Assertions.assertEquals(Collections.singleton("x.y"), fileData.keys(""));
+        fileData.clear();
+        Assertions.assertTrue(fileData.keys("").isEmpty());
+    }
+}
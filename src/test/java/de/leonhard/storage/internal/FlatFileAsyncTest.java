@@ -0,0 +1,92 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.Json;
+import de.leonhard.storage.Toml;
+import de.leonhard.storage.internal.exceptions.TomlException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+class FlatFileAsyncTest {
+
+    Json json;
+
+    @BeforeEach
+    void setUp() {
+        json = new Json("AsyncExample", "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        Assertions.assertTrue(json.getFile().delete());
+    }
+
+    @Test
+    void testOperationsRunInOrder() {
+        final List<CompletableFuture<FileData>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(json.setAsync("counter", i));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            // Every snapshot reflects its own operation
+            Assertions.assertEquals(i, futures.get(i).join().get("counter"));
+        }
+        Assertions.assertEquals(49, json.loadAsync().join().get("counter"));
+    }
+
+    @Test
+    void testSnapshotIsIndependent() {
+        final FileData snapshot = json.setAsync("a.b", "before").join();
+        json.set("a.b", "after");
+
+        Assertions.assertEquals("before", snapshot.get("a.b"));
+        Assertions.assertEquals("after", json.saveAsync().join().get("a.b"));
+    }
+
+    @Test
+    void testConcurrentWriters() throws InterruptedException {
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final int thread = i;
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 100; j++) {
+                    json.set("thread" + thread + ".key" + j, j);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        // Everything was written
+        json.forceReload();
+        Assertions.assertEquals(400, json.getFileData().leafCount());
+    }
+
+    @Test
+    void testReloadAfterFailedWrite() throws IOException {
+        final Toml toml = new Toml("FailedWrite", "");
+        try {
+            toml.set("a", 1);
+            Assertions.assertThrows(TomlException.class, () -> toml.set("bad", new Object()));
+
+            try (final FileWriter writer = new FileWriter(toml.getFile())) {
+                writer.write("a = 2\n");
+            }
+            Assertions.assertTrue(
+                    toml.getFile().setLastModified(System.currentTimeMillis() + 10_000));
+            Assertions.assertEquals(2, toml.getInt("a"));
+        } finally {
+            Assertions.assertTrue(toml.getFile().delete());
+        }
+    }
+}
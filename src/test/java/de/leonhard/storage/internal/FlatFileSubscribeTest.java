@@ -0,0 +1,99 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.Json;
+import de.leonhard.storage.internal.listener.Subscription;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class FlatFileSubscribeTest {
+
+    Json json;
+    List<String> changes;
+
+    @BeforeEach
+    void setUp() {
+        json = new Json("SubscribeExample", "");
+        json.set("server.port", 25565);
+        json.set("server.motd", "Hello");
+        changes = new ArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Assertions.assertTrue(json.getFile().delete());
+    }
+
+    @Test
+    void testSetAndRemove() {
+        final Subscription subscription = json.subscribe(
+                "server",
+                (key, oldValue, newValue) -> changes.add(key + ":" + oldValue + "->" + newValue));
+        json.subscribe(
+                "server.port",
+                (key, oldValue, newValue) -> changes.add("port:" + oldValue + "->" + newValue));
+
+        json.set("server.port", 25566);
+        json.set("server.port", 25566); // Unchanged
+        json.remove("server.motd");
+        json.set("other", true);
+        subscription.unsubscribe();
+        json.remove("server");
+
+        Assertions.assertEquals(
+                Arrays.asList(
+                        "server.port:25565->25566",
+                        "port:25565->25566",
+                        "server.motd:Hello->null",
+                        "port:25566->null"),
+                changes);
+    }
+
+    @Test
+    void testReload() throws IOException {
+        json.subscribe(
+                "server.motd",
+                (key, oldValue, newValue) -> changes.add(key + ":" + oldValue + "->" + newValue));
+
+        try (final FileWriter writer = new FileWriter(json.getFile())) {
+            writer.write("{\"server\": {\"port\": 1, \"motd\": \"Changed\"}}");
+        }
+        json.forceReload();
+        json.forceReload(); // Nothing changed
+
+        Assertions.assertEquals(Collections.singletonList("server.motd:Hello->Changed"), changes);
+    }
+
+    @Test
+    void testReloadListenerWaitingForOtherThread() throws IOException {
+        json.setReloadSettings(ReloadSettings.AUTOMATICALLY);
+        json.subscribe("server.motd", (key, oldValue, newValue) -> {
+            // Would deadlock if the listener was called while json is locked
+            final Thread thread = new Thread(() -> json.set("other", true));
+            thread.start();
+            try {
+                thread.join(5000);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            changes.add(key + ":" + thread.isAlive());
+        });
+
+        try (final FileWriter writer = new FileWriter(json.getFile())) {
+            writer.write("{\"server\": {\"port\": 1, \"motd\": \"Changed\"}}");
+        }
+        json.set("server.port", 2);
+
+        Assertions.assertEquals(Collections.singletonList("server.motd:false"), changes);
+        Assertions.assertTrue(json.getBoolean("other"));
+    }
+}
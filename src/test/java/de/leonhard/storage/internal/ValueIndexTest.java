@@ -0,0 +1,148 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.Json;
+import de.leonhard.storage.Yaml;
+import de.leonhard.storage.internal.settings.DataType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.*;
+
+class ValueIndexTest {
+
+    @Test
+    void testLookups() {
+        final FileData fileData = new FileData(new HashMap<>(), DataType.UNSORTED);
+        fileData.insert("users.alex.name", "Alex");
+        fileData.insert("users.alex.age", 20);
+        fileData.insert("users.steve.name", "Steve");
+        fileData.insert("users.steve.age", 25L);
+        fileData.insert("users.notch.age", new BigDecimal("20.0"));
+        fileData.insert("users.jeb.age", 31.5);
+        fileData.insert("users.jeb.homes", Arrays.asList(1, 2));
+        fileData.insert("admins.alex.age", 20);
+
+        final ValueIndex names = fileData.createIndex("users.*.name");
+        final ValueIndex ages = fileData.createIndex("users.*.age");
+        Assertions.assertSame(ages, fileData.createIndex("users.*.age"));
+
+        Assertions.assertEquals(Collections.singleton("users.alex.name"), names.get("Alex"));
+        Assertions.assertTrue(names.get("Notch").isEmpty());
+        Assertions.assertTrue(names.get(Arrays.asList(1, 2)).isEmpty());
+        Assertions.assertEquals(2, names.size());
+
+        // Numbers are compared by their value
+        Assertions.assertEquals(
+                new HashSet<>(Arrays.asList("users.alex.age", "users.notch.age")),
+                ages.get(20L));
+        Assertions.assertEquals(ages.get(20L), ages.get(20.0));
+        Assertions.assertEquals(
+                Arrays.asList("users.steve.age", "users.jeb.age"),
+                ages.range(21, null));
+        Assertions.assertEquals(Collections.singletonList("users.steve.age"), ages.range(21, 31.5));
+        Assertions.assertTrue(ages.range(30, 20).isEmpty());
+        Assertions.assertEquals(4, ages.range(null, null).size());
+    }
+
+    @Test
+    void testUpdates() {
+        final FileData fileData = new FileData(new HashMap<>(), DataType.SORTED);
+        fileData.insert("users.alex.name", "Alex");
+        final ValueIndex names = fileData.createIndex("users.*.name");
+
+        fileData.insert("users.alex.name", "Alexander");
+        Assertions.assertTrue(names.get("Alex").isEmpty());
+        Assertions.assertEquals("Alexander", names.getValue("users.alex.name"));
+
+        // Setting a whole layer
+        final Map<String, Object> steve = new HashMap<>();
+        steve.put("name", "Steve");
+        fileData.insert("users.steve", steve);
+        final Map<String, Object> users = new HashMap<>();
+        users.put("notch", Collections.singletonMap("name", "Notch"));
+        users.put("jeb", Collections.singletonMap("name", "Jeb"));
+        fileData.insert("users", users);
+        Assertions.assertEquals(2, names.size());
+        Assertions.assertTrue(names.get("Steve").isEmpty());
+        Assertions.assertEquals(Collections.singleton("users.jeb.name"), names.get("Jeb"));
+
+        // A value replacing a layer & the other way around
+        fileData.insert("users.jeb", "banned");
+        Assertions.assertNull(names.getValue("users.jeb.name"));
+        fileData.insert("users.jeb.name.first", "Jeb");
+        Assertions.assertNull(names.getValue("users.jeb.name"));
+        fileData.insert("users.jeb.name", "Jeb");
+        Assertions.assertEquals("Jeb", names.getValue("users.jeb.name"));
+
+        fileData.remove("users.notch.name");
+        fileData.remove("users.jeb");
+        Assertions.assertEquals(0, names.size());
+
+        fileData.insert("users.alex.name", "Alex");
+        fileData.clear();
+        Assertions.assertEquals(0, names.size());
+
+        fileData.dropIndex(names);
+        fileData.insert("users.alex.name", "Alex");
+        Assertions.assertEquals(0, names.size());
+        Assertions.assertTrue(fileData.getIndexes().isEmpty());
+    }
+
+    @Test
+    void testReload() throws IOException {
+        final Json json = new Json("ValueIndex", "");
+        try {
+            json.set("users.alex.name", "Alex");
+            json.set("users.steve.name", "Steve");
+            final ValueIndex names = json.createIndex("users.*.name");
+            Assertions.assertEquals(Collections.singleton("users.steve.name"), names.get("Steve"));
+
+            try (final FileWriter writer = new FileWriter(json.getFile())) {
+                writer.write("{\"users\": {\"alex\": {\"name\": \"Steve\"}}}");
+            }
+            json.forceReload();
+            Assertions.assertEquals(Collections.singleton("users.alex.name"), names.get("Steve"));
+            Assertions.assertEquals(1, names.size());
+        } finally {
+            Assertions.assertTrue(json.getFile().delete());
+        }
+    }
+
+    @Test
+    void testYamlNumbers() throws IOException {
+        final Yaml yaml = new Yaml("ValueIndex", "");
+        try {
+            try (final FileWriter writer = new FileWriter(yaml.getFile())) {
+                writer.write("users:\n  alex:\n    age: 30\n  steve:\n    age: 120\n"
+                        + "  notch:\n    age: unknown\n");
+            }
+            yaml.forceReload();
+            // YAML reads every value as a string
+            final ValueIndex ages = yaml.createIndex("users.*.age");
+            Assertions.assertEquals("30", ages.getValue("users.alex.age"));
+            Assertions.assertEquals(Collections.singleton("users.alex.age"), ages.get(30));
+            Assertions.assertEquals(ages.get(30), ages.get("30"));
+            Assertions.assertEquals(Collections.singletonList("users.alex.age"), ages.range(1, 100));
+            Assertions.assertEquals(
+                    Arrays.asList("users.alex.age", "users.steve.age", "users.notch.age"),
+                    ages.range(null, null));
+
+            yaml.set("users.alex.age", 31);
+            Assertions.assertTrue(ages.get(30).isEmpty());
+            Assertions.assertEquals(Collections.singleton("users.alex.age"), ages.get("31"));
+
+            // Single values are only found if they're written the same way
+            yaml.set("users.bob.age", "031");
+            yaml.set("users.jeb.age", "31.0");
+            Assertions.assertEquals(Collections.singleton("users.alex.age"), ages.get("31"));
+            Assertions.assertEquals(Collections.singleton("users.bob.age"), ages.get("031"));
+            Assertions.assertEquals(Collections.singleton("users.jeb.age"), ages.get("31.0"));
+            Assertions.assertEquals(3, ages.range(31, 32).size());
+        } finally {
+            Assertions.assertTrue(yaml.getFile().delete());
+        }
+    }
+}
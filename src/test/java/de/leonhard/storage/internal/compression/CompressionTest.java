@@ -0,0 +1,175 @@
+package de.leonhard.storage.internal.compression;
+
+import de.leonhard.storage.*;
+import de.leonhard.storage.internal.exceptions.LightningValidationException;
+import de.leonhard.storage.util.FlatFileConverter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+class CompressionTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void testJson() throws IOException {
+        final Json json = LightningBuilder
+                .fromPath("data", directory.getAbsolutePath())
+                .setCompression(Compression.gzip().withLevel(9).withBufferSize(1024))
+                .createJson();
+        Assertions.assertEquals("data.json.gz", json.getName());
+        json.set("name", "Steve");
+        json.set("nested.balance", 100);
+
+        final byte[] content = Files.readAllBytes(json.getFile().toPath());
+        Assertions.assertEquals((byte) 0x1f, content[0]);
+        Assertions.assertEquals((byte) 0x8b, content[1]);
+
+        // Compression is detected from the name
+        final Json read = new Json(json.getFile());
+        Assertions.assertEquals(CompressionCodecs.GZIP, read.getCompression().getCodec());
+        Assertions.assertEquals("Steve", read.getString("name"));
+        Assertions.assertEquals(100, read.getInt("nested.balance"));
+        Assertions.assertEquals(
+                100,
+                LightningBuilder.fromFile(json.getFile()).createJson().getInt("nested.balance"));
+
+        final Compression compression = Compression.gzip();
+        Assertions.assertThrows(
+                LightningValidationException.class,
+                () -> compression.withLevel(10));
+        Assertions.assertThrows(
+                LightningValidationException.class,
+                () -> compression.withBufferSize(0));
+    }
+
+    @Test
+    void testConfig() {
+        final Config config = LightningBuilder
+                .fromPath("config", directory.getAbsolutePath())
+                .setCompression(Compression.deflate())
+                .createConfig();
+        config.set("a", "1");
+        config.setHeader(Collections.singletonList("# Header"));
+        config.set("b", "2");
+        config.set("a", "3");
+
+        final Config read = new Config(new File(directory, "config.yml.deflate"));
+        Assertions.assertEquals(Collections.singletonList("# Header"), read.getHeader());
+        Assertions.assertEquals("3", read.getString("a"));
+        Assertions.assertEquals("2", read.getString("b"));
+    }
+
+    @Test
+    void testChangeDetection() throws IOException {
+        final File file = new File(directory, "data.json.gz");
+        final CheckingJson json = new CheckingJson(file);
+        json.set("a", 1);
+        final byte[] content = Files.readAllBytes(file.toPath());
+
+        // Written again with the same content
+        Files.write(file.toPath(), content);
+        Assertions.assertTrue(file.setLastModified(System.currentTimeMillis() + 10_000));
+        Assertions.assertTrue(json.hasChanged());
+        Assertions.assertFalse(json.shouldReload());
+
+        // The same fingerprint with another length isn't trusted
+        final GzipCodec codec = new GzipCodec();
+        final Long fingerprint = codec.fingerprint(file);
+        final ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        try (final InputStream in = codec.decompress(new ByteArrayInputStream(content), 512);
+             final OutputStream out = codec.compress(stored, 0, 512)) {
+            final byte[] buffer = new byte[512];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        Assertions.assertNotEquals(content.length, stored.size());
+        Files.write(file.toPath(), stored.toByteArray());
+        Assertions.assertEquals(fingerprint, codec.fingerprint(file));
+        Assertions.assertTrue(file.setLastModified(System.currentTimeMillis() + 15_000));
+        Assertions.assertTrue(json.shouldReload());
+        Assertions.assertEquals(1, json.getInt("a"));
+
+        new Json(file).set("a", 2);
+        Assertions.assertTrue(file.setLastModified(System.currentTimeMillis() + 20_000));
+        Assertions.assertTrue(json.shouldReload());
+        Assertions.assertEquals(2, json.getInt("a"));
+    }
+
+    @Test
+    void testCustomCodec() {
+        CompressionCodecs.register(new PlainCodec());
+        final File file = new File(directory, "data.toml.plain");
+        final Toml toml = new Toml(file);
+        toml.set("a", 1);
+        Assertions.assertEquals("plain", toml.getCompression().getCodec().getName());
+        Assertions.assertEquals(1, new Toml(file).getInt("a"));
+    }
+
+    @Test
+    void testConversion() {
+        final Json json = new Json(new File(directory, "data.json"));
+        json.set("homes", Arrays.asList("home", "base"));
+
+        final File compressed = new File(directory, "data.yml.gz");
+        FlatFileConverter.convert(json.getFile(), compressed);
+        Assertions.assertEquals(
+                Arrays.asList("home", "base"),
+                new Yaml(compressed).getStringList("homes"));
+
+        final File back = new File(directory, "back.json.deflate");
+        FlatFileConverter.convert(compressed, back);
+        Assertions.assertEquals(json.getData(), new Json(back).getData());
+    }
+
+    private static final class CheckingJson extends Json {
+
+        private CheckingJson(final File file) {
+            super(file);
+        }
+
+        @Override
+        public boolean shouldReload() {
+            return super.shouldReload();
+        }
+    }
+
+    private static final class PlainCodec extends CompressionCodec {
+
+        @Override
+        public String getName() {
+            return "plain";
+        }
+
+        @Override
+        public String getExtension() {
+            return "plain";
+        }
+
+        @Override
+        public OutputStream compress(
+                final OutputStream outputStream,
+                final int level,
+                final int bufferSize) {
+            return outputStream;
+        }
+
+        @Override
+        public InputStream decompress(final InputStream inputStream, final int bufferSize) {
+            return inputStream;
+        }
+    }
+}
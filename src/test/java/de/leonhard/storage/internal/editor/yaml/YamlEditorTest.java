@@ -0,0 +1,82 @@
+package de.leonhard.storage.internal.editor.yaml;
+
+import de.leonhard.storage.util.YamlUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class YamlEditorTest {
+
+    final File file = new File("YamlEditor.yml");
+    final List<String> lines = Arrays.asList(
+            "#Header",
+            "#Header",
+            "key: value",
+            "#Header",
+            "# Comment",
+            "other: value",
+            "#Footer");
+    YamlEditor editor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.write(file.toPath(), lines);
+        editor = new YamlEditor(file);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Assertions.assertTrue(file.delete());
+    }
+
+    @Test
+    void testRead() {
+        Assertions.assertEquals(lines, editor.read());
+        Assertions.assertEquals(Arrays.asList("#Header", "#Header"), editor.readHeader());
+        Assertions.assertEquals(Collections.singletonList("#Footer"), editor.readFooter());
+        // Comments equal to the header aren't part of it
+        Assertions.assertEquals(Arrays.asList("#Header", "# Comment"), editor.readPureComments());
+        Assertions.assertEquals(lines.subList(2, 6), editor.readWithoutHeaderAndFooter());
+        Assertions.assertEquals(Arrays.asList("key: value", "other: value"), editor.readKeys());
+
+        // Returned lists are copies
+        editor.read().clear();
+        editor.readHeader().clear();
+        Assertions.assertEquals(lines, editor.read());
+    }
+
+    @Test
+    void testWrite() throws IOException {
+        editor.setHeader(Collections.singletonList("New"));
+        Assertions.assertEquals(Collections.singletonList("#New"), editor.readHeader());
+        Assertions.assertEquals("#Header", editor.read().get(2));
+
+        // Changes of others are noticed
+        Files.write(file.toPath(), Arrays.asList("#Other", "key: value"));
+        editor.invalidate();
+        Assertions.assertEquals(Collections.singletonList("#Other"), editor.readHeader());
+        Assertions.assertTrue(editor.readFooter().isEmpty());
+    }
+
+    @Test
+    void testYamlUtils() {
+        final List<String> comments = Arrays.asList("#1", "#2");
+        final List<String> copy = new ArrayList<>(Arrays.asList("#1", "key: value", "#2", "#3"));
+        Assertions.assertEquals(Arrays.asList("#2", "#3"), YamlUtils.getFooterFromLines(copy));
+        // The lines aren't changed
+        Assertions.assertEquals(Arrays.asList("#1", "key: value", "#2", "#3"), copy);
+        Assertions.assertEquals(comments, YamlUtils.getHeaderFromLines(comments));
+        Assertions.assertEquals(comments, YamlUtils.getFooterFromLines(comments));
+        Assertions.assertTrue(YamlUtils.getPureCommentsFromLines(comments).isEmpty());
+        Assertions.assertTrue(YamlUtils.getLinesWithoutFooterAndHeaderFromLines(comments).isEmpty());
+    }
+}
@@ -0,0 +1,130 @@
+package de.leonhard.storage.internal.editor.yaml;
+
+import de.leonhard.storage.Config;
+import de.leonhard.storage.internal.FileData;
+import de.leonhard.storage.internal.settings.DataType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+class YamlPatcherTest {
+
+    final File file = new File("YamlPatcher.yml");
+    List<String> lines;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        lines = new ArrayList<>(Arrays.asList(
+                "# Settings",
+                "server:",
+                "   # Port of the server",
+                "   port: 8080",
+                "   name: Lobby",
+                "list: ",
+                "- 1",
+                "- name: nested",
+                "  port: 1",
+                "greeting: 'hello'",
+                "motd: hello",
+                "# Footer"));
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Assertions.assertTrue(file.delete());
+    }
+
+    @Test
+    void testPatch() throws IOException {
+        final Config config = new Config("YamlPatcher", "");
+
+        // Same length, written in place
+        config.set("server.port", 9090);
+        lines.set(3, "   port: 9090");
+        Assertions.assertEquals(lines, read());
+
+        // Other lengths, the rest of the file is rewritten
+        config.set("server.name", "Survival Games");
+        config.set("motd", "hi");
+        lines.set(4, "   name: Survival Games");
+        lines.set(10, "motd: hi");
+        Assertions.assertEquals(lines, read());
+
+        config.forceReload();
+        Assertions.assertEquals("Survival Games", config.getString("server.name"));
+        Assertions.assertEquals(9090, config.getInt("server.port"));
+        Assertions.assertEquals("hello", config.getString("greeting"));
+    }
+
+    @Test
+    void testFullWrite() throws IOException {
+        final Config config = new Config("YamlPatcher", "");
+
+        // Added keys require writing everything
+        config.set("server.slots", 20);
+        List<String> written = read();
+        Assertions.assertTrue(written.contains("   slots: 20"));
+        Assertions.assertTrue(written.contains("   # Port of the server"));
+        Assertions.assertFalse(written.contains("greeting: 'hello'"));
+
+        // Values can be patched again afterwards
+        config.set("server.slots", 300);
+        final int slots = written.indexOf("   slots: 20");
+        written.set(slots, "   slots: 300");
+        Assertions.assertEquals(written, read());
+
+        // Values with colliding hashes
+        config.set("users.u1.name", "Aa");
+        config.set("users.u1.name", "BB");
+        Assertions.assertTrue(read().contains("      name: BB"));
+
+        // Values which aren't written on a single line
+        config.set("motd", "line\nbreak");
+        written = read();
+        Assertions.assertTrue(written.contains("motd: |-"));
+        config.forceReload();
+        Assertions.assertEquals("line\nbreak", config.getString("motd"));
+    }
+
+    @Test
+    void testCharset() throws IOException {
+        Files.write(
+                file.toPath(),
+                Arrays.asList("server:", "   name: Café", "   port: 1"),
+                StandardCharsets.ISO_8859_1);
+        final FileData data = new FileData(new HashMap<>(), DataType.SORTED);
+        data.insert("server.name", "Café");
+        data.insert("server.port", "1");
+
+        final YamlPatcher patcher = new YamlPatcher(file, StandardCharsets.ISO_8859_1);
+        patcher.read(Files.readAllBytes(file.toPath()));
+        patcher.loaded(data.snapshot());
+        data.insert("server.name", "Müller");
+        Assertions.assertTrue(patcher.patch(data.snapshot()));
+        Assertions.assertEquals(
+                Arrays.asList("server:", "   name: Müller", "   port: 1"),
+                Files.readAllLines(file.toPath(), StandardCharsets.ISO_8859_1));
+
+        // Line breaks of more than one byte can't be found in the content
+        final YamlPatcher utf16 = new YamlPatcher(file, StandardCharsets.UTF_16);
+        utf16.read(Files.readAllBytes(file.toPath()));
+        utf16.loaded(data.snapshot());
+        data.insert("server.name", "Cafe");
+        Assertions.assertFalse(utf16.patch(data.snapshot()));
+    }
+
+    private List<String> read() throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+}
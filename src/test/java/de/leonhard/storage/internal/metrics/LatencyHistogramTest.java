@@ -0,0 +1,40 @@
+package de.leonhard.storage.internal.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBuckets() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            final int bucket = LatencyHistogram.bucketOf(value);
+            Assertions.assertTrue(value <= LatencyHistogram.upperBoundOf(bucket), "value " + value);
+            if (bucket > 0) {
+                Assertions.assertTrue(value > LatencyHistogram.upperBoundOf(bucket - 1), "value " + value);
+            }
+        }
+    }
+
+    @Test
+    void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        Assertions.assertEquals(1000, histogram.getCount());
+        Assertions.assertEquals(1000L, histogram.getMin());
+        Assertions.assertEquals(1_000_000L, histogram.getMax());
+        Assertions.assertEquals(500_500D, histogram.getMean());
+
+        // Percentiles are exact up to 12.5%
+        final long median = histogram.getPercentile(50);
+        Assertions.assertTrue(median >= 500_000 && median <= 500_000 * 1.125, "median " + median);
+        Assertions.assertEquals(1_000_000L, histogram.getPercentile(100));
+
+        histogram.reset();
+        Assertions.assertEquals(0, histogram.getCount());
+        Assertions.assertEquals(0L, histogram.getPercentile(99));
+    }
+}
@@ -0,0 +1,55 @@
+package de.leonhard.storage.internal.metrics;
+
+import de.leonhard.storage.Json;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class StorageEventsTest {
+
+    @Test
+    void testEventsAreRecorded() throws Exception {
+        Assumptions.assumeTrue(StorageEvents.isAvailable());
+
+        final Path dump = Files.createTempFile("storage-events", ".jfr");
+        final Json json = new Json("StorageEvents", "");
+        try (final Recording recording = new Recording()) {
+            recording.enable("de.leonhard.storage.FlatFileReload").withoutThreshold();
+            recording.enable("de.leonhard.storage.FlatFileWrite").withoutThreshold();
+            recording.start();
+
+            json.set("a.b", 1);
+            json.set("a.c", 2);
+            json.forceReload();
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        final List<RecordedEvent> writes = events.stream()
+                .filter(event -> event.getEventType().getName().equals("de.leonhard.storage.FlatFileWrite"))
+                .collect(Collectors.toList());
+        final List<RecordedEvent> reloads = events.stream()
+                .filter(event -> event.getEventType().getName().equals("de.leonhard.storage.FlatFileReload"))
+                .collect(Collectors.toList());
+
+        Assertions.assertEquals(2, writes.size());
+        Assertions.assertEquals(1, reloads.size());
+        Assertions.assertEquals(json.getFilePath(), reloads.get(0).getString("path"));
+        Assertions.assertEquals(2, reloads.get(0).getInt("keys"));
+        Assertions.assertEquals(json.getFile().length(), reloads.get(0).getLong("bytes"));
+
+        Files.deleteIfExists(dump);
+        new File(json.getFilePath()).delete();
+    }
+}
@@ -0,0 +1,174 @@
+package de.leonhard.storage.internal.serialize;
+
+import de.leonhard.storage.Json;
+import lombok.NonNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+class LightningSerializerTest {
+
+    interface Shape {
+        int getCorners();
+    }
+
+    static class Square implements Shape {
+
+        @Override
+        public int getCorners() {
+            return 4;
+        }
+    }
+
+    static class ColoredSquare extends Square {
+    }
+
+    static class Unregistered {
+    }
+
+    @LightningMapped
+    static class Unmappable {
+
+        private final String name;
+
+        Unmappable(final String name) {
+            this.name = name;
+        }
+    }
+
+    enum Rank {
+        PLAYER,
+        ADMIN
+    }
+
+    @LightningMapped
+    static class Profile {
+
+        private String name;
+        private int level;
+        @LightningKey("player-rank")
+        private Rank rank;
+        private char grade;
+        private Character initial;
+        @LightningKey(ignore = true)
+        private String cached = "cached";
+        private transient String session;
+    }
+
+    @Test
+    void testHierarchyResolution() {
+        LightningSerializer.registerSerializable(new LightningSerializable<Shape>() {
+            @Override
+            public Shape deserialize(@NonNull final Object obj) {
+                return new Square();
+            }
+
+            @Override
+            public Object serialize(@NonNull final Shape shape) {
+                return shape.getCorners();
+            }
+
+            @Override
+            public Class<Shape> getClazz() {
+                return Shape.class;
+            }
+        });
+
+        Assertions.assertTrue(LightningSerializer.isSerializable(Square.class));
+        Assertions.assertTrue(LightningSerializer.isSerializable(ColoredSquare.class));
+        Assertions.assertFalse(LightningSerializer.isSerializable(Unregistered.class));
+        Assertions.assertEquals(4, LightningSerializer.serialize(new ColoredSquare()));
+
+        // Registering a more specific serializable must win over the cached resolution
+        LightningSerializer.registerSerializable(new LightningSerializable<Square>() {
+            @Override
+            public Square deserialize(@NonNull final Object obj) {
+                return new Square();
+            }
+
+            @Override
+            public Object serialize(@NonNull final Square square) {
+                final Map<String, Object> result = new TreeMap<>();
+                result.put("corners", square.getCorners());
+                return result;
+            }
+
+            @Override
+            public Class<Square> getClazz() {
+                return Square.class;
+            }
+        });
+
+        Assertions.assertTrue(LightningSerializer.serialize(new ColoredSquare()) instanceof Map);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMappedSerializable() {
+        final Profile profile = new Profile();
+        profile.name = "Leonhard";
+        profile.level = 12;
+        profile.rank = Rank.ADMIN;
+        profile.grade = 'A';
+        profile.initial = 'L';
+        profile.session = "session";
+
+        Assertions.assertTrue(LightningSerializer.isSerializable(Profile.class));
+        final Map<String, Object> raw = (Map<String, Object>) LightningSerializer.serialize(profile);
+        Assertions.assertEquals("Leonhard", raw.get("name"));
+        Assertions.assertEquals(12, raw.get("level"));
+        Assertions.assertEquals("ADMIN", raw.get("player-rank"));
+        Assertions.assertEquals("A", raw.get("grade"));
+        Assertions.assertEquals("L", raw.get("initial"));
+        Assertions.assertFalse(raw.containsKey("cached"));
+        Assertions.assertFalse(raw.containsKey("session"));
+
+        // Numbers might be read back as another type, for example as long from JSON
+        raw.put("level", 12L);
+        final Profile read = LightningSerializer.deserialize(raw, Profile.class);
+        Assertions.assertEquals("Leonhard", read.name);
+        Assertions.assertEquals(12, read.level);
+        Assertions.assertEquals(Rank.ADMIN, read.rank);
+        Assertions.assertEquals('A', read.grade);
+        Assertions.assertEquals(Character.valueOf('L'), read.initial);
+        Assertions.assertNull(read.session);
+
+        // Classes which can't be mapped aren't serializable
+        Assertions.assertFalse(LightningSerializer.isSerializable(Unmappable.class));
+    }
+
+    @Test
+    void testBulkSerializables() {
+        final Json json = new Json("Serializables", "");
+        final List<Profile> profiles = new ArrayList<>();
+        final Map<String, Profile> byName = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            final Profile profile = new Profile();
+            profile.name = "Player-" + i;
+            profile.level = i;
+            profile.rank = i % 2 == 0 ? Rank.PLAYER : Rank.ADMIN;
+            profiles.add(profile);
+            byName.put(profile.name, profile);
+        }
+
+        json.setSerializableList("profiles", profiles);
+        json.setSerializableMap("by-name", byName);
+        json.forceReload();
+
+        Assertions.assertEquals(100, json.getSerializableList("profiles", Profile.class).size());
+        Assertions.assertEquals(
+                4950,
+                json.streamSerializable("profiles", Profile.class).mapToInt(profile -> profile.level).sum());
+        Assertions.assertEquals(
+                Rank.ADMIN,
+                json.getSerializableMap("by-name", Profile.class).get("Player-7").rank);
+        Assertions.assertEquals(0, json.streamSerializable("missing", Profile.class).count());
+
+        Assertions.assertTrue(json.getFile().delete());
+    }
+}
@@ -0,0 +1,88 @@
+package de.leonhard.storage.sections;
+
+import de.leonhard.storage.Json;
+import de.leonhard.storage.internal.DataNode;
+import de.leonhard.storage.internal.FileData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileWriter;
+import java.io.IOException;
+
+class FlatFileSectionTest {
+
+    Json json;
+    FlatFileSection section;
+
+    @BeforeEach
+    void setUp() {
+        json = new Json("SectionExample", "");
+        json.set("players.alex.balance", 10);
+        json.set("players.alex.homes.home.x", 1);
+        json.set("players.steve.balance", 20);
+        section = json.getSection("players.alex");
+    }
+
+    @AfterEach
+    void tearDown() {
+        Assertions.assertTrue(json.getFile().delete());
+    }
+
+    @Test
+    void testGet() {
+        Assertions.assertEquals(10, section.getInt("balance"));
+        Assertions.assertEquals(1, section.getInt("homes.home.x"));
+        Assertions.assertTrue(section.contains("homes.home"));
+        Assertions.assertFalse(section.contains("homes.base"));
+        Assertions.assertNull(section.get("missing"));
+        Assertions.assertNull(json.getSection("players.notch").get("balance"));
+    }
+
+    @Test
+    void testChanges() {
+        final FileData fileData = json.getFileData();
+        final int version = fileData.getStructureVersion();
+        final DataNode alex = fileData.getLayer("players.alex");
+        final DataNode steve = fileData.getLayer("players.steve");
+        section.set("balance", 15);
+        json.set("players.alex.balance", 16);
+        Assertions.assertEquals(version, fileData.getStructureVersion());
+        // Writing the file only borrowed our layers, so they were changed in place
+        Assertions.assertTrue(fileData.isCurrent(alex, version));
+        Assertions.assertSame(alex, fileData.getLayer("players.alex"));
+        Assertions.assertTrue(fileData.isCurrent(steve, version));
+        Assertions.assertEquals(16, section.getInt("balance"));
+
+        json.set("players.alex.homes.base.x", 2);
+        Assertions.assertNotEquals(version, fileData.getStructureVersion());
+        Assertions.assertEquals(2, section.getInt("homes.base.x"));
+
+        // Layers are copied once a snapshot shares them
+        final FileData snapshot = fileData.snapshot();
+        section.set("balance", 17);
+        Assertions.assertEquals(17, section.getInt("balance"));
+        Assertions.assertEquals(16, snapshot.get("players.alex.balance"));
+
+        json.remove("players.alex");
+        Assertions.assertNull(section.get("balance"));
+        json.set("players.alex.balance", 18);
+        Assertions.assertEquals(18, section.getInt("balance"));
+
+        json.setPathPrefix("players");
+        Assertions.assertNull(section.get("balance"));
+        json.setPathPrefix(null);
+        Assertions.assertEquals(18, section.getInt("balance"));
+    }
+
+    @Test
+    void testReload() throws IOException {
+        Assertions.assertEquals(10, section.getInt("balance"));
+        try (final FileWriter writer = new FileWriter(json.getFile())) {
+            writer.write("{\"players\": {\"alex\": {\"balance\": 30}}}");
+        }
+        json.forceReload();
+        Assertions.assertEquals(30, section.getInt("balance"));
+    }
+}
@@ -0,0 +1,35 @@
+package de.leonhard.storage.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+class CompactMapTest {
+
+    @Test
+    void testBehavesLikeMap() {
+        final Map<String, Object> compact = new CompactMap<>(4, LinkedHashMap::new);
+        final Map<String, Object> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            compact.put("key" + i, i);
+            expected.put("key" + i, i);
+            Assertions.assertEquals(expected, compact);
+            Assertions.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(compact.keySet()));
+        }
+
+        final Map<String, Object> small = new CompactMap<>(4, HashMap::new);
+        small.put("x", 1);
+        small.put("y", 2);
+        small.put("z", 3);
+        Assertions.assertEquals(1, small.put("x", 10));
+        Assertions.assertEquals(2, small.remove("y"));
+        Assertions.assertNull(small.remove("y"));
+        Assertions.assertEquals(Arrays.asList("x", "z"), new ArrayList<>(small.keySet()));
+
+        final Iterator<Map.Entry<String, Object>> iterator = small.entrySet().iterator();
+        iterator.next().setValue(11);
+        iterator.remove();
+        Assertions.assertEquals(Collections.singletonMap("z", 3), small);
+    }
+}
@@ -0,0 +1,145 @@
+package de.leonhard.storage.util;
+
+import de.leonhard.storage.Json;
+import de.leonhard.storage.Toml;
+import de.leonhard.storage.Yaml;
+import de.leonhard.storage.internal.FileType;
+import de.leonhard.storage.internal.exceptions.LightningValidationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+class FlatFileConverterTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void testJsonAndYaml() {
+        final Json json = createJson(new File(directory, "data.json"));
+
+        // Streaming gives the same data as converting loaded files
+        final File yamlFile = new File(directory, "data.yml");
+        FlatFileConverter.convert(json.getFile(), yamlFile);
+        final Yaml loadedYaml = new Yaml(new File(directory, "loaded.yml"));
+        FlatFileConverter.addAllData(json, loadedYaml);
+        loadedYaml.forceReload();
+        final Yaml yaml = new Yaml(yamlFile);
+        Assertions.assertEquals(loadedYaml.getData(), yaml.getData());
+        Assertions.assertEquals("Steve \"the\" Miller", yaml.getString("name"));
+        Assertions.assertEquals(100, yaml.getInt("balance"));
+        Assertions.assertTrue(yaml.getBoolean("nested.admin"));
+        Assertions.assertEquals("first\nsecond: line", yaml.getString("nested.text"));
+
+        final File backFile = new File(directory, "back.json");
+        FlatFileConverter.convert(yamlFile, backFile);
+        final Json loadedJson = new Json(new File(directory, "loaded.json"));
+        FlatFileConverter.addAllData(yaml, loadedJson);
+        loadedJson.forceReload();
+        Assertions.assertEquals(loadedJson.getData(), new Json(backFile).getData());
+    }
+
+    @Test
+    void testToml() {
+        final Json json = createJson(new File(directory, "data.json"));
+        final File tomlFile = new File(directory, "data.toml");
+        FlatFileConverter.convert(json.getFile(), tomlFile);
+        Assertions.assertEquals(json.getData(), new Toml(tomlFile).getData());
+
+        final File backFile = new File(directory, "back.json");
+        FlatFileConverter.convert(tomlFile, backFile);
+        Assertions.assertEquals(json.getData(), new Json(backFile).getData());
+    }
+
+    @Test
+    void testEmptyAndBrokenFiles() throws IOException {
+        final File empty = new File(directory, "empty.yml");
+        Assertions.assertTrue(empty.createNewFile());
+        final File emptyJson = new File(directory, "empty.json");
+        FlatFileConverter.convert(empty, emptyJson);
+        Assertions.assertTrue(new Json(emptyJson).getData().isEmpty());
+
+        final File nulls = new File(directory, "nulls.yml");
+        Files.write(nulls.toPath(), Arrays.asList("empty:", "plain: null", "quoted: 'null'"));
+        final File nullsJson = new File(directory, "nulls.json");
+        FlatFileConverter.convert(nulls, nullsJson);
+        final Json json = new Json(nullsJson);
+        Assertions.assertTrue(json.contains("empty"));
+        Assertions.assertNull(json.get("empty"));
+        Assertions.assertNull(json.get("plain"));
+        Assertions.assertEquals("null", json.get("quoted"));
+
+        final File broken = new File(directory, "broken.json");
+        Files.write(broken.toPath(), Collections.singletonList("{\"a\": [1, 2"));
+        final File destination = new File(directory, "broken.yml");
+        Assertions.assertThrows(
+                LightningValidationException.class,
+                () -> FlatFileConverter.convert(broken, destination));
+        // Nothing is left behind
+        Assertions.assertFalse(destination.exists());
+        final String[] temporary = directory.list((dir, name) -> name.endsWith(".tmp"));
+        Assertions.assertNotNull(temporary);
+        Assertions.assertEquals(0, temporary.length);
+    }
+
+    @Test
+    void testDirectory() throws IOException {
+        final File source = new File(directory, "source");
+        createJson(new File(source, "a.json"));
+        createJson(new File(source, "players/b.json"));
+        FlatFileConverter.convert(new File(source, "a.json"), new File(source, "players/c.yml"));
+        Files.write(new File(source, "broken.json").toPath(), Collections.singletonList("["));
+        Files.write(new File(source, "notes.txt").toPath(), Collections.singletonList("notes"));
+        // Both would be converted to "same.yml"
+        createJson(new File(source, "same.json"));
+        new Toml(new File(source, "same.toml")).set("balance", 200);
+
+        final File destination = new File(directory, "destination");
+        final List<FlatFileConverter.Conversion> progress =
+                Collections.synchronizedList(new ArrayList<>());
+        final List<FlatFileConverter.Conversion> failed = FlatFileConverter.convertDirectory(
+                source, destination, FileType.YAML, 2, progress::add);
+
+        Assertions.assertEquals(5, progress.size());
+        final Set<Integer> done = new HashSet<>();
+        for (final FlatFileConverter.Conversion conversion : progress) {
+            Assertions.assertEquals(5, conversion.getTotal());
+            done.add(conversion.getDone());
+        }
+        Assertions.assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 4, 5)), done);
+
+        final Set<String> failedNames = new HashSet<>();
+        for (final FlatFileConverter.Conversion conversion : failed) {
+            failedNames.add(conversion.getSource().getName());
+            Assertions.assertNotNull(conversion.getError());
+        }
+        Assertions.assertEquals(
+                new HashSet<>(Arrays.asList("broken.json", "same.json", "same.toml")),
+                failedNames);
+        Assertions.assertFalse(new File(destination, "same.yml").exists());
+
+        Assertions.assertEquals(100, new Yaml(new File(destination, "a.yml")).getInt("balance"));
+        Assertions.assertEquals(
+                100,
+                new Yaml(new File(destination, "players/b.yml")).getInt("balance"));
+        // Files already in the new format are skipped
+        Assertions.assertFalse(new File(destination, "players/c.yml").exists());
+        Assertions.assertFalse(new File(destination, "notes.yml").exists());
+    }
+
+    private static Json createJson(final File file) {
+        final Json json = new Json(file);
+        json.set("name", "Steve \"the\" Miller");
+        json.set("balance", 100);
+        json.set("nested.admin", true);
+        json.set("nested.text", "first\nsecond: line");
+        json.set("homes", Arrays.asList("home", "base"));
+        json.set("scores", Arrays.asList(1, 2, 3));
+        return json;
+    }
+}
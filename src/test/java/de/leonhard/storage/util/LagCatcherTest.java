@@ -0,0 +1,37 @@
+package de.leonhard.storage.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class LagCatcherTest {
+
+    @Test
+    void testConcurrentTimings() throws InterruptedException {
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    LagCatcher.start("concurrent");
+                    try (LagCatcher.Timer ignored = LagCatcher.time("concurrent")) {
+                        Thread.yield();
+                    }
+                    LagCatcher.stop("concurrent");
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(8000, LagCatcher.getStats("concurrent").getCount());
+    }
+
+    @Test
+    void testStopWithoutStart() {
+        Assertions.assertThrows(IllegalStateException.class, () -> LagCatcher.stop("never-started"));
+    }
+}
@@ -0,0 +1,137 @@
+package de.leonhard.storage.util;
+
+import de.leonhard.storage.Json;
+import de.leonhard.storage.Toml;
+import de.leonhard.storage.Yaml;
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.provider.LightningProviders;
+import de.leonhard.storage.internal.provider.MapProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+class NumberArraysTest {
+
+    @AfterEach
+    void tearDown() {
+        LightningProviders.mapProvider(null);
+    }
+
+    @Test
+    void testPrimitiveLists() {
+        final IntArrayList ints = new IntArrayList(0, true);
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ints.add(i);
+            expected.add(i);
+        }
+        ints.add(0, -1);
+        expected.add(0, -1);
+        Assertions.assertEquals(50, ints.remove(51));
+        expected.remove(51);
+        Assertions.assertEquals(expected, ints);
+        Assertions.assertEquals(ints, expected);
+        Assertions.assertEquals(expected.hashCode(), ints.hashCode());
+        Assertions.assertTrue(ints.isOffHeap());
+        Assertions.assertEquals(-1, ints.toIntArray()[0]);
+
+        final DoubleArrayList doubles = DoubleArrayList.of(new double[]{1.5, Double.NaN}, false);
+        Assertions.assertEquals(Arrays.asList(1.5, Double.NaN), doubles);
+        Assertions.assertEquals(doubles, DoubleArrayList.of(new double[]{1.5, Double.NaN}, true));
+        Assertions.assertEquals(Arrays.asList(1.5, Double.NaN).hashCode(), doubles.hashCode());
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> doubles.get(2));
+    }
+
+    @Test
+    void testCompact() {
+        Assertions.assertTrue(NumberArrays.compact(sequence(64, i -> i)) instanceof IntArrayList);
+        Assertions.assertTrue(NumberArrays.compact(sequence(64, i -> (long) i)) instanceof LongArrayList);
+        Assertions.assertTrue(NumberArrays.compact(sequence(64, i -> i + 0.5)) instanceof DoubleArrayList);
+        Assertions.assertTrue(NumberArrays.compact(new long[]{1, 2}) instanceof LongArrayList);
+        // Too short
+        Assertions.assertTrue(NumberArrays.compact(sequence(63, i -> i)) instanceof ArrayList);
+        // Elements would change their type
+        final List<Object> mixed = new ArrayList<>(sequence(64, i -> i));
+        mixed.add(1L);
+        Assertions.assertSame(mixed, NumberArrays.compact(mixed));
+        // Decimals of JSON
+        Assertions.assertEquals(
+                sequence(64, i -> i / 10D),
+                NumberArrays.compact(sequence(64, i -> new BigDecimal(i + "e-1"))));
+        final List<BigDecimal> precise = sequence(64, i -> new BigDecimal("0.10000000000000000001"));
+        Assertions.assertSame(precise, NumberArrays.compact(precise));
+        // Lists of lists
+        final Object nested = NumberArrays.compact(Arrays.asList(sequence(64, i -> i), Collections.emptyList()));
+        Assertions.assertTrue(((List<?>) nested).get(0) instanceof IntArrayList);
+
+        LightningProviders.mapProvider(new MapProvider() {
+            @Override
+            public int getPrimitiveArrayThreshold() {
+                return 0;
+            }
+        });
+        Assertions.assertTrue(NumberArrays.compact(sequence(64, i -> i)) instanceof ArrayList);
+    }
+
+    @Test
+    void testNumericStringsOfYaml() {
+        final Yaml yaml = new Yaml("NumericStrings", "");
+        try {
+            final List<String> ids = sequence(64, String::valueOf);
+            yaml.set("ids", ids);
+            yaml.forceReload();
+
+            // YAML reads every value as string, they are only parsed when requested as numbers
+            Assertions.assertEquals(ids, yaml.getStringList("ids"));
+            Assertions.assertEquals("0", yaml.getStringList("ids").get(0));
+            Assertions.assertEquals(63, yaml.getIntArray("ids")[63]);
+            Assertions.assertEquals(63L, yaml.getLongArray("ids")[63]);
+        } finally {
+            Assertions.assertTrue(yaml.getFile().delete());
+        }
+    }
+
+    @Test
+    void testFlatFiles() {
+        testFlatFile(new Json("NumberArrays", ""), true);
+        testFlatFile(new Yaml("NumberArrays", ""), false);
+        testFlatFile(new Toml("NumberArrays", ""), true);
+    }
+
+    private void testFlatFile(final FlatFile flatFile, final boolean readsNumbers) {
+        try {
+            final List<Integer> heights = sequence(256, i -> i * 7 % 100);
+            final List<Double> averages = sequence(100, i -> i / 4D);
+            flatFile.set("map.heights", heights);
+            flatFile.set("stats.averages", averages);
+            flatFile.set("array", new int[]{1, 2, 3});
+            Assertions.assertTrue(flatFile.get("map.heights") instanceof IntArrayList, flatFile.getName());
+            flatFile.forceReload();
+
+            if (readsNumbers) {
+                Assertions.assertTrue(flatFile.get("map.heights") instanceof IntArrayList, flatFile.getName());
+                Assertions.assertTrue(flatFile.get("stats.averages") instanceof DoubleArrayList, flatFile.getName());
+                Assertions.assertEquals(heights, flatFile.getIntegerList("map.heights"));
+                Assertions.assertEquals(averages, flatFile.getList("stats.averages"));
+            }
+            Assertions.assertEquals(heights.get(255), flatFile.getIntArray("map.heights")[255]);
+            Assertions.assertArrayEquals(new int[]{1, 2, 3}, flatFile.getIntArray("array"));
+            Assertions.assertArrayEquals(new long[]{1, 2, 3}, flatFile.getLongArray("array"));
+            Assertions.assertEquals(0.25, flatFile.getDoubleArray("stats.averages")[1]);
+            Assertions.assertEquals(0, flatFile.getIntArray("missing").length);
+        } finally {
+            Assertions.assertTrue(flatFile.getFile().delete());
+        }
+    }
+
+    private static <T> List<T> sequence(final int size, final java.util.function.IntFunction<T> element) {
+        final List<T> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(element.apply(i));
+        }
+        return list;
+    }
+}